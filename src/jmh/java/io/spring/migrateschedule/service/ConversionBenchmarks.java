@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per schedule CPU cost of converting a schedule, using synthetic
+ * schedules with the number of properties and arguments provided.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmarks {
+
+	@Param({"10", "100", "500"})
+	public int propertyCount;
+
+	private CFMigrateSchedulerService migrateService;
+
+	private Map<String, String> appProperties;
+
+	private Map<String, String> scheduleProperties;
+
+	private ScheduleProperties indexedScheduleProperties;
+
+	private List<String> commandLineArgs;
+
+	private String command;
+
+	@Setup
+	public void setup() {
+		TaskDefinitionRepository taskDefinitionRepository = (TaskDefinitionRepository) Proxy.newProxyInstance(
+				TaskDefinitionRepository.class.getClassLoader(), new Class<?>[] {TaskDefinitionRepository.class},
+				(proxy, method, args) -> null);
+		this.migrateService = new CFMigrateSchedulerService(null, null, null, new ConverterProperties(),
+				taskDefinitionRepository, new MigrationMetrics());
+		this.appProperties = new HashMap<>();
+		this.scheduleProperties = new HashMap<>();
+		this.commandLineArgs = new ArrayList<>();
+		StringBuilder commandBuilder = new StringBuilder("java -jar org.springframework.boot.loader.JarLauncher");
+		for (int i = 0; i < this.propertyCount; i++) {
+			this.appProperties.put("app.property" + i, "value" + i);
+			this.scheduleProperties.put(((i % 2 == 0) ? "spring.cloud.scheduler.property" : "deployer.property") + i, "value" + i);
+			this.commandLineArgs.add("--argument" + i + "=value" + i);
+			commandBuilder.append(" --argument").append(i).append("='value ").append(i).append("'");
+		}
+		this.appProperties.put("spring.cloud.task.name", "timestamp");
+		this.commandLineArgs.add("--spring.cloud.dataflow.client.serverUri=http://localhost:9393");
+		this.command = commandBuilder.toString();
+		this.indexedScheduleProperties = new ScheduleProperties(this.scheduleProperties);
+	}
+
+	@Benchmark
+	public Map<String, String> tagProperties() {
+		return this.migrateService.tagProperties("timestamp", this.appProperties, AbstractMigrateService.APP_PREFIX);
+	}
+
+	@Benchmark
+	public List<String> tagCommandLineArgs() {
+		return this.migrateService.tagCommandLineArgs(this.commandLineArgs);
+	}
+
+	@Benchmark
+	public Map<String, String> extractAndQualifySchedulerProperties() {
+		return AbstractMigrateService.extractAndQualifySchedulerProperties(this.scheduleProperties);
+	}
+
+	@Benchmark
+	public Map<String, String> extractIndexedSchedulerProperties() {
+		return AbstractMigrateService.extractAndQualifySchedulerProperties(this.indexedScheduleProperties);
+	}
+
+	@Benchmark
+	public List<String> parseCommandLineArgs() {
+		return CFMigrateSchedulerService.parseCommandLineArgs(this.command);
+	}
+}
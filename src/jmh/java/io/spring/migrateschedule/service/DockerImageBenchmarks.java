@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares parsing docker image names with the previous {@code String.split} based
+ * parser and the single pass parser. Run with {@code -prof gc} to compare the
+ * allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DockerImageBenchmarks {
+
+	@Param({"springcloud/spring-cloud-dataflow-scheduler-task-launcher:2.3.0.RELEASE",
+			"registry.example.com:5000/springcloud/spring-cloud-dataflow-scheduler-task-launcher:2.3.0.RELEASE"})
+	public String imageName;
+
+	@Benchmark
+	public DockerImage splitParse() {
+		return splitParse(this.imageName);
+	}
+
+	@Benchmark
+	public DockerImage singlePassParse() {
+		return DockerImage.fromImageName(this.imageName);
+	}
+
+	/**
+	 * The previous parser, kept as the baseline.
+	 */
+	private static DockerImage splitParse(String imageName) {
+		String[] parts = imageName.split(DockerImage.SECTION_SEPARATOR);
+		switch (parts.length) {
+			case 1:
+				return splitParse(null, null, parts[0]);
+			case 2:
+				return DockerImage.isValidNamespace(parts[0]) ?
+						splitParse(null, parts[0], parts[1]) : splitParse(parts[0], null, parts[1]);
+			default:
+				String host = parts[0];
+				String repo = parts[parts.length - 1];
+				String namespace = imageName.substring(host.length() + 1, imageName.length() - repo.length() - 1);
+				return splitParse(host, namespace, repo);
+		}
+	}
+
+	private static DockerImage splitParse(String host, String namespace, String repoAndTag) {
+		String[] repoParts = repoAndTag.split(DockerImage.TAG_SEPARATOR);
+		return DockerImage.fromParts(host, namespace, repoParts[0],
+				(repoParts.length > 1) ? repoParts[1] : DockerImage.DEFAULT_TAG);
+	}
+}
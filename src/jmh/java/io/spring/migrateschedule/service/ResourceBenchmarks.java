@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.net.MalformedURLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.deployer.resource.maven.MavenProperties;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+
+/**
+ * Measures the cost of resolving and parsing the resources used by the migrated
+ * schedules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceBenchmarks {
+
+	private AppResourceCommon appResourceCommon;
+
+	private UrlResource urlResource;
+
+	@Setup
+	public void setup() throws MalformedURLException {
+		this.appResourceCommon = new AppResourceCommon(new MavenProperties(), new DefaultResourceLoader());
+		this.urlResource = new UrlResource("https://repo.spring.io/release/spring-cloud-dataflow-scheduler-task-launcher-2.3.0.RELEASE.jar");
+	}
+
+	@Benchmark
+	public Resource getResource(ResourceUri resourceUri) {
+		return this.appResourceCommon.getResource(resourceUri.uri);
+	}
+
+	@Benchmark
+	public String getUrlResourceVersion() {
+		return this.appResourceCommon.getUrlResourceVersion(this.urlResource);
+	}
+
+	@Benchmark
+	public DockerImage dockerImageFromImageName() {
+		return DockerImage.fromImageName("registry.example.com:5000/springcloud/spring-cloud-dataflow-scheduler-task-launcher:2.3.0.RELEASE");
+	}
+
+	@State(Scope.Benchmark)
+	public static class ResourceUri {
+
+		@Param({"maven://org.springframework.cloud:spring-cloud-dataflow-scheduler-task-launcher:2.3.0.RELEASE",
+				"docker:springcloud/spring-cloud-dataflow-scheduler-task-launcher:2.3.0.RELEASE",
+				"https://repo.spring.io/release/spring-cloud-dataflow-scheduler-task-launcher-2.3.0.RELEASE.jar"})
+		public String uri;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.util.Assert;
+
+/**
+ * Logs the migration meters once the job has completed, so that a run shows whether it
+ * was bound by the platform, the scheduler or the database.
+ */
+public class MigrationMetricsListener implements JobExecutionListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(MigrationMetricsListener.class);
+
+	private final MigrationMetrics migrationMetrics;
+
+	public MigrationMetricsListener(MigrationMetrics migrationMetrics) {
+		Assert.notNull(migrationMetrics, "migrationMetrics must not be null");
+		this.migrationMetrics = migrationMetrics;
+	}
+
+	@Override
+	public void beforeJob(JobExecution jobExecution) {
+	}
+
+	@Override
+	public void afterJob(JobExecution jobExecution) {
+		for (Meter meter : this.migrationMetrics.getMeterRegistry().getMeters()) {
+			if (!meter.getId().getName().startsWith(MigrationMetrics.PREFIX)) {
+				continue;
+			}
+			String name = meter.getId().getName() + meter.getId().getTags().stream()
+					.map(Tag::getValue)
+					.collect(Collectors.joining(",", "[", "]"));
+			if (meter instanceof Timer) {
+				Timer timer = (Timer) meter;
+				logger.info(String.format("%s count=%s total=%.0fms mean=%.1fms max=%.1fms", name, timer.count(),
+						timer.totalTime(TimeUnit.MILLISECONDS), timer.mean(TimeUnit.MILLISECONDS),
+						timer.max(TimeUnit.MILLISECONDS)));
+			}
+			else if (meter instanceof Counter) {
+				logger.info(String.format("%s count=%.0f", name, ((Counter) meter).count()));
+			}
+			else if (meter instanceof FunctionCounter) {
+				logger.info(String.format("%s count=%.0f", name, ((FunctionCounter) meter).count()));
+			}
+			else if (meter instanceof Gauge) {
+				logger.info(String.format("%s value=%.0f", name, ((Gauge) meter).value()));
+			}
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads the schedules of a migration plan written by the {@link MigrationPlanWriter},
+ * one line at a time. The number of lines read is stored in the execution context so
+ * that a restarted step resumes after the last committed schedule.
+ */
+public class MigrationPlanReader extends FlatFileItemReader<ConvertScheduleInfo> {
+
+	public MigrationPlanReader(Resource plan) {
+		ObjectReader objectReader = new ObjectMapper().readerFor(ConvertScheduleInfo.class);
+		setName(ClassUtils.getShortName(MigrationPlanReader.class));
+		setResource(plan);
+		setLineMapper((line, lineNumber) -> objectReader.readValue(line));
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
+import org.springframework.util.Assert;
+
+/**
+ * Writes the schedules that would be created to a migration plan instead of migrating
+ * them. Each line of the plan is the JSON of a {@link ConvertScheduleInfo} holding the
+ * existing schedule name, the new schedule name, the scheduler properties, the tagged
+ * app properties and the command line arguments, so that the plan can later be
+ * executed by the {@link MigrationPlanReader} without enriching the schedules again.
+ * The plan is opened when the job starts and is shared by all the partitions. When
+ * the job is restarted the plan is appended to, so that the entries written by the
+ * partitions that completed before the restart are kept.
+ */
+public class MigrationPlanWriter implements ItemWriter, JobExecutionListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(MigrationPlanWriter.class);
+
+	private static final String PLAN_STARTED_KEY = "migrationPlan.started";
+
+	private final MigrateScheduleService scheduleService;
+
+	private final String planFile;
+
+	private final ObjectWriter objectWriter = new ObjectMapper()
+			.setSerializationInclusion(JsonInclude.Include.NON_NULL)
+			.writerFor(ConvertScheduleInfo.class);
+
+	private MigrationMetrics migrationMetrics = new MigrationMetrics();
+
+	private BufferedWriter writer;
+
+	public MigrationPlanWriter(MigrateScheduleService scheduleService, String planFile) {
+		Assert.notNull(scheduleService, "scheduleService must not be null");
+		Assert.hasText(planFile, "planFile must not be empty");
+		this.scheduleService = scheduleService;
+		this.planFile = planFile;
+	}
+
+	public void setMigrationMetrics(MigrationMetrics migrationMetrics) {
+		this.migrationMetrics = migrationMetrics;
+	}
+
+	@Override
+	public synchronized void beforeJob(JobExecution jobExecution) {
+		// the job execution context of a restarted job is the one of the failed execution.
+		boolean restarted = jobExecution != null && jobExecution.getExecutionContext().containsKey(PLAN_STARTED_KEY);
+		try {
+			this.writer = restarted ?
+					Files.newBufferedWriter(Paths.get(this.planFile), StandardCharsets.UTF_8,
+							StandardOpenOption.CREATE, StandardOpenOption.APPEND) :
+					Files.newBufferedWriter(Paths.get(this.planFile), StandardCharsets.UTF_8);
+		}
+		catch (IOException exception) {
+			throw new IllegalStateException(String.format("Unable to create the migration plan %s", this.planFile), exception);
+		}
+		if (jobExecution != null) {
+			jobExecution.getExecutionContext().putString(PLAN_STARTED_KEY, this.planFile);
+		}
+	}
+
+	@Override
+	public synchronized void afterJob(JobExecution jobExecution) {
+		if (this.writer != null) {
+			try {
+				this.writer.close();
+			}
+			catch (IOException exception) {
+				logger.warn(String.format("Unable to close the migration plan %s", this.planFile), exception);
+			}
+			this.writer = null;
+		}
+	}
+
+	@Override
+	public void write(List list) throws IOException {
+		List<String> lines = new ArrayList<>(list.size());
+		for (Object item : list) {
+			lines.add(toPlanEntry((ConvertScheduleInfo) item));
+		}
+		synchronized (this) {
+			Assert.state(this.writer != null, "The migration plan is not open");
+			for (String line : lines) {
+				this.writer.write(line);
+				this.writer.newLine();
+			}
+			this.writer.flush();
+		}
+		this.migrationMetrics.schedules(MigrationMetrics.PLANNED, lines.size());
+	}
+
+	private String toPlanEntry(ConvertScheduleInfo scheduleInfo) throws JsonProcessingException {
+		ScheduleRequest scheduleRequest = this.scheduleService.createScheduleRequest(scheduleInfo);
+		ConvertScheduleInfo result = new ConvertScheduleInfo();
+		result.setScheduleName(scheduleInfo.getScheduleName());
+		result.setMigratedScheduleName(scheduleRequest.getScheduleName());
+		result.setTaskDefinitionName(scheduleInfo.getTaskDefinitionName());
+		result.setScheduleProperties(scheduleRequest.getSchedulerProperties());
+		result.setAppProperties(scheduleRequest.getDefinition().getProperties());
+		result.setCommandLineArgs(scheduleRequest.getCommandlineArguments());
+		return this.objectWriter.writeValueAsString(result);
+	}
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrationPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.util.StringUtils;
+
+/**
+ * Records the outcome of each schedule migrated in a report, one record per schedule
+ * with the existing and new schedule names, the task definition, the state, the
+ * failure and the milliseconds spent in each {@link MigrationPhase}. The report is a
+ * CSV file, or a JSON document per line when the file name ends with {@code .jsonl}.
+ * Nothing is recorded when no report file is provided.
+ * <p>
+ * The records are queued and appended to the report by a single background thread so
+ * that the threads migrating the schedules never wait for the file. The report is
+ * created when the first record is queued and is appended to, so that the records of a
+ * restarted migration are kept. A schedule that fails and is retried has a record for
+ * each failed attempt followed by the record of its outcome.
+ */
+public class MigrationReport implements JobExecutionListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(MigrationReport.class);
+
+	private static final String JSON_LINES_EXTENSION = ".jsonl";
+
+	private static final int QUEUE_CAPACITY = 10000;
+
+	private static final String END_OF_REPORT = "";
+
+	private static final String[] COLUMNS = {"timestamp", "scheduleName", "migratedScheduleName", "taskDefinitionName",
+			"state", "failure", "listMillis", "enrichMillis", "scheduleMillis", "unscheduleMillis"};
+
+	private final Path reportFile;
+
+	private final boolean jsonLines;
+
+	private final ObjectWriter objectWriter = new ObjectMapper().writerFor(Map.class);
+
+	private final BlockingQueue<String> records = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+
+	private Thread reportWriter;
+
+	/**
+	 * @param reportFile the report file or null for no report.
+	 */
+	public MigrationReport(String reportFile) {
+		this.reportFile = StringUtils.hasText(reportFile) ? Paths.get(reportFile) : null;
+		this.jsonLines = StringUtils.hasText(reportFile) && reportFile.endsWith(JSON_LINES_EXTENSION);
+	}
+
+	/**
+	 * Queue the record of a schedule to be appended to the report.
+	 * @param scheduleInfo the schedule.
+	 * @param migratedScheduleName the name of the new schedule, or null if none was created.
+	 * @param state the state of the schedule, i.e. one of the states of the
+	 * {@link io.spring.migrateschedule.service.MigrationMetrics}.
+	 * @param failure the failure of the schedule or null if none.
+	 */
+	public void report(ConvertScheduleInfo scheduleInfo, String migratedScheduleName, String state, Throwable failure) {
+		if (this.reportFile == null) {
+			return;
+		}
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put(COLUMNS[0], Instant.now().toString());
+		record.put(COLUMNS[1], scheduleInfo.getScheduleName());
+		record.put(COLUMNS[2], migratedScheduleName);
+		record.put(COLUMNS[3], scheduleInfo.getTaskDefinitionName());
+		record.put(COLUMNS[4], state);
+		record.put(COLUMNS[5], (failure != null) ? String.valueOf(failure) : null);
+		int column = 6;
+		for (MigrationPhase phase : MigrationPhase.values()) {
+			record.put(COLUMNS[column++], TimeUnit.NANOSECONDS.toMillis(scheduleInfo.getPhaseTime(phase)));
+		}
+		start();
+		try {
+			this.records.put(format(record));
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			logger.warn(String.format("Interrupted before Schedule %s was recorded in the migration report %s",
+					scheduleInfo.getScheduleName(), this.reportFile));
+		}
+	}
+
+	@Override
+	public void beforeJob(JobExecution jobExecution) {
+	}
+
+	/**
+	 * Wait for the queued records to be appended and close the report.
+	 */
+	@Override
+	public synchronized void afterJob(JobExecution jobExecution) {
+		if (this.reportWriter == null) {
+			return;
+		}
+		try {
+			this.records.put(END_OF_REPORT);
+			this.reportWriter.join();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			logger.warn(String.format("Interrupted before the migration report %s was written", this.reportFile));
+		}
+		this.reportWriter = null;
+	}
+
+	private synchronized void start() {
+		if (this.reportWriter == null) {
+			this.reportWriter = new Thread(this::writeRecords, "migration-report");
+			this.reportWriter.setDaemon(true);
+			this.reportWriter.start();
+		}
+	}
+
+	private void writeRecords() {
+		BufferedWriter writer = open();
+		List<String> batch = new ArrayList<>();
+		try {
+			while (true) {
+				batch.add(this.records.take());
+				this.records.drainTo(batch);
+				boolean end = false;
+				for (String record : batch) {
+					if (END_OF_REPORT.equals(record)) {
+						end = true;
+					}
+					else if (writer != null) {
+						writer = write(writer, record);
+					}
+				}
+				batch.clear();
+				if (writer != null) {
+					writer = flush(writer);
+				}
+				if (end) {
+					return;
+				}
+			}
+		}
+		catch (InterruptedException exception) {
+			logger.warn(String.format("Interrupted while writing the migration report %s", this.reportFile));
+		}
+		finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				}
+				catch (IOException exception) {
+					logger.warn(String.format("Unable to close the migration report %s", this.reportFile), exception);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the report or null if it cannot be written, in which case the records are
+	 * discarded so that the migration is not held up.
+	 */
+	private BufferedWriter open() {
+		try {
+			boolean newReport = !Files.exists(this.reportFile) || Files.size(this.reportFile) == 0;
+			BufferedWriter result = Files.newBufferedWriter(this.reportFile, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			if (newReport && !this.jsonLines) {
+				result.write(String.join(",", COLUMNS));
+				result.newLine();
+			}
+			return result;
+		}
+		catch (IOException exception) {
+			logger.error(String.format("Unable to create the migration report %s", this.reportFile), exception);
+			return null;
+		}
+	}
+
+	private BufferedWriter write(BufferedWriter writer, String record) {
+		try {
+			writer.write(record);
+			writer.newLine();
+			return writer;
+		}
+		catch (IOException exception) {
+			logger.error(String.format("Unable to write the migration report %s", this.reportFile), exception);
+			return null;
+		}
+	}
+
+	private BufferedWriter flush(BufferedWriter writer) {
+		try {
+			writer.flush();
+			return writer;
+		}
+		catch (IOException exception) {
+			logger.error(String.format("Unable to write the migration report %s", this.reportFile), exception);
+			return null;
+		}
+	}
+
+	private String format(Map<String, Object> record) {
+		if (this.jsonLines) {
+			try {
+				return this.objectWriter.writeValueAsString(record);
+			}
+			catch (JsonProcessingException exception) {
+				throw new IllegalStateException("Unable to format the migration report record", exception);
+			}
+		}
+		List<String> values = new ArrayList<>(record.size());
+		for (Object value : record.values()) {
+			values.add(csv((value != null) ? value.toString() : null));
+		}
+		return String.join(",", values);
+	}
+
+	static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.ConverterProperties;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.MigrationPhase;
+import io.spring.migrateschedule.service.TransientFailures;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
+import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Migrates the schedules with a reactive pipeline instead of a chunk oriented step.
+ * The schedules are read from a {@link ScheduleListing} taken when the step starts,
+ * before any schedule is migrated, because removing the original schedules shifts the
+ * pages of the platform. The schedules are enriched, the new schedules are created and
+ * the original schedules are removed by successive stages, each with its own
+ * concurrency, and each stage requests a bounded number of schedules ahead from the
+ * previous one. The enrichment does not block when the {@link MigrateScheduleService}
+ * supports it. The {@link Scheduler} blocks, so the schedules are created and removed
+ * on a bounded elastic scheduler, or on the {@link TaskExecutor} provided.
+ * <p>
+ * The pipeline runs in the background while the tasklet is executed repeatedly. Each
+ * execution waits for the next schedules to complete and records them in the step
+ * execution, so that a checkpoint is committed to the batch repository at each
+ * checkpoint interval. The pipeline only completes as many schedules ahead of the
+ * tasklet as the prefetch allows, each schedule taken by the tasklet requests the next
+ * one. Like the {@link SchedulerWriter}, a schedule whose new schedule
+ * already exists is not created again, so that a restarted migration only performs the
+ * remaining work. Transient failures are retried and the schedules that still fail are
+ * skipped until the skip limit is exceeded.
+ */
+public class ReactiveMigrationTasklet implements Tasklet, StepExecutionListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReactiveMigrationTasklet.class);
+
+	private static final String MIGRATED_KEY = "reactive.migrated";
+
+	private static final String SKIPPED_KEY = "reactive.skipped";
+
+	private static final String FAILED_KEY = "reactive.failed";
+
+	private static final Object COMPLETED = new Object();
+
+	private final MigrateScheduleService scheduleService;
+
+	private final Scheduler scheduler;
+
+	private final ConverterProperties converterProperties;
+
+	private MigrationMetrics migrationMetrics = new MigrationMetrics();
+
+	private MigrationReport migrationReport;
+
+	private reactor.core.scheduler.Scheduler blockingScheduler = Schedulers.boundedElastic();
+
+	private OutcomeSubscriber pipeline;
+
+	private int migrated;
+
+	private int skipped;
+
+	private int failed;
+
+	public ReactiveMigrationTasklet(MigrateScheduleService scheduleService, Scheduler scheduler,
+			ConverterProperties converterProperties) {
+		Assert.notNull(scheduleService, "scheduleService must not be null");
+		Assert.notNull(converterProperties, "converterProperties must not be null");
+		this.scheduleService = scheduleService;
+		this.scheduler = scheduler;
+		this.converterProperties = converterProperties;
+	}
+
+	public void setMigrationMetrics(MigrationMetrics migrationMetrics) {
+		this.migrationMetrics = migrationMetrics;
+	}
+
+	/**
+	 * Establish the {@link MigrationReport} the outcome of each schedule is recorded in.
+	 * @param migrationReport the migration report or null for none.
+	 */
+	public void setMigrationReport(MigrationReport migrationReport) {
+		this.migrationReport = migrationReport;
+	}
+
+	/**
+	 * Establish the {@link TaskExecutor} the blocking calls of the {@link Scheduler} are
+	 * made on, instead of a bounded elastic scheduler.
+	 * @param taskExecutor the task executor.
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		Assert.notNull(taskExecutor, "taskExecutor must not be null");
+		this.blockingScheduler = Schedulers.fromExecutor(taskExecutor);
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		stop();
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		stop();
+		return null;
+	}
+
+	@Override
+	public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+		ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+		if (this.pipeline == null) {
+			start(executionContext);
+		}
+		for (int i = 0; i < this.converterProperties.getReactiveCheckpointInterval(); i++) {
+			Object outcome = this.pipeline.take();
+			if (outcome == COMPLETED) {
+				checkpoint(executionContext);
+				return RepeatStatus.FINISHED;
+			}
+			if (outcome instanceof Throwable) {
+				throw (outcome instanceof Exception) ? (Exception) outcome : new IllegalStateException((Throwable) outcome);
+			}
+			record(contribution, (Outcome) outcome);
+		}
+		checkpoint(executionContext);
+		return RepeatStatus.CONTINUABLE;
+	}
+
+	private void start(ExecutionContext executionContext) {
+		Assert.state(this.scheduler != null, "A scheduler is required to migrate the schedules");
+		// the counts of a restarted migration carry on from its last checkpoint.
+		this.migrated = executionContext.getInt(MIGRATED_KEY, 0);
+		this.skipped = executionContext.getInt(SKIPPED_KEY, 0);
+		this.failed = executionContext.getInt(FAILED_KEY, 0);
+		// a listing that failed is not retried, so each attempt lists the schedules again.
+		ScheduleListing scheduleListing = retryTransientFailures(Mono.fromCallable(() -> {
+			ScheduleListing result = new ScheduleListing(this.scheduleService);
+			result.size();
+			return result;
+		})).block();
+		Set<String> existingSchedules = listExistingSchedules();
+		OutcomeSubscriber pipeline = new OutcomeSubscriber(this.converterProperties.getReactivePrefetch());
+		this.pipeline = pipeline;
+		migrate(scheduleListing, existingSchedules).subscribe(pipeline);
+	}
+
+	private synchronized void stop() {
+		if (this.pipeline != null) {
+			this.pipeline.dispose();
+			this.pipeline = null;
+		}
+	}
+
+	private Flux<Outcome> migrate(ScheduleListing scheduleListing, Set<String> existingSchedules) {
+		int prefetch = this.converterProperties.getReactivePrefetch();
+		return Flux.range(0, scheduleListing.size())
+				.map(index -> {
+					this.migrationMetrics.schedules(MigrationMetrics.READ, 1);
+					return scheduleListing.getSchedule(index);
+				})
+				.filter(scheduleInfo -> {
+					if (this.scheduleService.isMigratedSchedule(scheduleInfo)) {
+						// created by a previous run of an interrupted migration.
+						this.migrationMetrics.schedules(MigrationMetrics.SKIPPED, 1);
+						return false;
+					}
+					return true;
+				})
+				.flatMap(this::enrich, this.converterProperties.getReactiveEnrichConcurrency(), prefetch)
+				.flatMap(outcome -> outcome.isPending() ? schedule(outcome, existingSchedules) : Mono.just(outcome),
+						this.converterProperties.getReactiveScheduleConcurrency(), prefetch)
+				.flatMap(outcome -> outcome.isPending() ? unschedule(outcome) : Mono.just(outcome),
+						this.converterProperties.getReactiveUnscheduleConcurrency(), prefetch);
+	}
+
+	private Mono<Outcome> enrich(ConvertScheduleInfo scheduleInfo) {
+		return timed(scheduleInfo, MigrationPhase.ENRICH,
+				retryTransientFailures(Mono.defer(() -> this.scheduleService.requestEnrichedScheduleInfo(scheduleInfo))))
+				.map(enriched -> {
+					this.migrationMetrics.schedules(MigrationMetrics.ENRICHED, 1);
+					return new Outcome(enriched);
+				})
+				.onErrorResume(failure -> Mono.just(new Outcome(scheduleInfo).failed(null, failure)));
+	}
+
+	private Mono<Outcome> schedule(Outcome outcome, Set<String> existingSchedules) {
+		ConvertScheduleInfo scheduleInfo = outcome.scheduleInfo;
+		String migratedScheduleName = this.scheduleService.getMigratedScheduleName(scheduleInfo);
+		if (existingSchedules.contains(migratedScheduleName)) {
+			if (!existingSchedules.contains(scheduleInfo.getScheduleName())) {
+				logger.info(String.format("Schedule %s already migrated by a previous run", scheduleInfo.getScheduleName()));
+				return Mono.just(outcome.completed(migratedScheduleName, MigrationMetrics.SKIPPED));
+			}
+			// the new schedule was created by a previous run, only the original remains.
+			return Mono.just(outcome);
+		}
+		return remoteCall(scheduleInfo, MigrationPhase.SCHEDULE, MigrationMetrics.SCHEDULE, () -> {
+			ScheduleRequest scheduleRequest = this.scheduleService.createScheduleRequest(scheduleInfo);
+			this.scheduler.schedule(scheduleRequest);
+			this.scheduleService.markMigratedSchedule(scheduleInfo);
+		})
+				.thenReturn(outcome)
+				.onErrorResume(failure -> Mono.just(outcome.failed(migratedScheduleName, failure)));
+	}
+
+	private Mono<Outcome> unschedule(Outcome outcome) {
+		ConvertScheduleInfo scheduleInfo = outcome.scheduleInfo;
+		String migratedScheduleName = this.scheduleService.getMigratedScheduleName(scheduleInfo);
+		return remoteCall(scheduleInfo, MigrationPhase.UNSCHEDULE, MigrationMetrics.UNSCHEDULE,
+				() -> this.scheduler.unschedule(scheduleInfo.getScheduleName()))
+				.then(Mono.fromCallable(() -> outcome.completed(migratedScheduleName, MigrationMetrics.MIGRATED)))
+				.onErrorResume(failure -> Mono.just(outcome.failed(migratedScheduleName, failure)));
+	}
+
+	/**
+	 * Make a blocking call of the {@link Scheduler} on the blocking scheduler.
+	 */
+	private Mono<Void> remoteCall(ConvertScheduleInfo scheduleInfo, MigrationPhase phase, String operation,
+			Runnable call) {
+		return retryTransientFailures(Mono.<Void>fromRunnable(
+				() -> this.migrationMetrics.timeRemoteCall(operation, scheduleInfo, phase, call))
+				.subscribeOn(this.blockingScheduler));
+	}
+
+	private <T> Mono<T> timed(ConvertScheduleInfo scheduleInfo, MigrationPhase phase, Mono<T> mono) {
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return mono
+					.doOnSuccess(result -> scheduleInfo.addPhaseTime(phase, System.nanoTime() - start))
+					.doOnError(failure -> scheduleInfo.addPhaseTime(phase, System.nanoTime() - start));
+		});
+	}
+
+	/**
+	 * Resubscribe to the call when it fails with a transient failure, waiting twice as
+	 * long after each attempt, or the maximum interval when the calls are rate limited.
+	 */
+	private <T> Mono<T> retryTransientFailures(Mono<T> call) {
+		return call.retryWhen(failures -> failures
+				.zipWith(Flux.range(1, Integer.MAX_VALUE))
+				.flatMap(failure -> {
+					int attempt = failure.getT2();
+					if (attempt >= this.converterProperties.getRetryLimit() || !TransientFailures.isTransient(failure.getT1())) {
+						return Mono.error(failure.getT1());
+					}
+					long interval = TransientFailures.isRateLimited(failure.getT1()) ?
+							this.converterProperties.getRetryMaxIntervalInMillis() :
+							Math.min(this.converterProperties.getRetryInitialIntervalInMillis() << Math.min(attempt - 1, 30),
+									this.converterProperties.getRetryMaxIntervalInMillis());
+					return Mono.delay(Duration.ofMillis(interval));
+				}));
+	}
+
+	private Set<String> listExistingSchedules() {
+		List<ScheduleInfo> scheduleInfos = this.migrationMetrics.remoteCall(MigrationMetrics.LIST_SCHEDULES)
+				.record(() -> this.scheduler.list());
+		Set<String> result = new HashSet<>();
+		if (scheduleInfos != null) {
+			for (ScheduleInfo scheduleInfo : scheduleInfos) {
+				result.add(scheduleInfo.getScheduleName());
+			}
+		}
+		return result;
+	}
+
+	private void record(StepContribution contribution, Outcome outcome) {
+		String scheduleName = outcome.scheduleInfo.getScheduleName();
+		contribution.incrementReadCount();
+		this.migrationMetrics.schedules(outcome.state, 1);
+		if (this.migrationReport != null) {
+			this.migrationReport.report(outcome.scheduleInfo, outcome.migratedScheduleName, outcome.state, outcome.failure);
+		}
+		if (MigrationMetrics.MIGRATED.equals(outcome.state)) {
+			this.migrated++;
+			contribution.incrementWriteCount(1);
+			logger.info(String.format("Migrated Schedule %s ", scheduleName));
+		}
+		else if (MigrationMetrics.SKIPPED.equals(outcome.state)) {
+			this.skipped++;
+			contribution.incrementFilterCount(1);
+		}
+		else {
+			this.failed++;
+			logger.error(String.format("Unable to migrate Schedule %s", scheduleName), outcome.failure);
+			if (this.failed > this.converterProperties.getSkipLimit()) {
+				throw new SkipLimitExceededException(this.converterProperties.getSkipLimit(), outcome.failure);
+			}
+			contribution.incrementProcessSkipCount();
+		}
+	}
+
+	private void checkpoint(ExecutionContext executionContext) {
+		executionContext.putInt(MIGRATED_KEY, this.migrated);
+		executionContext.putInt(SKIPPED_KEY, this.skipped);
+		executionContext.putInt(FAILED_KEY, this.failed);
+		logger.info(String.format("Checkpoint: %s schedules migrated, %s skipped and %s failed",
+				this.migrated, this.skipped, this.failed));
+	}
+
+	/**
+	 * Subscribes to the pipeline and hands its outcomes to the tasklet. At most the
+	 * capacity of outcomes are requested ahead of the tasklet, each outcome taken
+	 * requests the next one, so that the queue is bounded.
+	 */
+	private static final class OutcomeSubscriber extends BaseSubscriber<Outcome> {
+
+		private final int capacity;
+
+		private final BlockingQueue<Object> outcomes;
+
+		private OutcomeSubscriber(int capacity) {
+			Assert.isTrue(capacity > 0, "capacity must be greater than 0");
+			this.capacity = capacity;
+			// one more for the completion or the error.
+			this.outcomes = new ArrayBlockingQueue<>(capacity + 1);
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			request(this.capacity);
+		}
+
+		@Override
+		protected void hookOnNext(Outcome outcome) {
+			this.outcomes.add(outcome);
+		}
+
+		@Override
+		protected void hookOnError(Throwable failure) {
+			this.outcomes.add(failure);
+		}
+
+		@Override
+		protected void hookOnComplete() {
+			this.outcomes.add(COMPLETED);
+		}
+
+		private Object take() throws InterruptedException {
+			Object result = this.outcomes.take();
+			if (result instanceof Outcome) {
+				request(1);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A schedule going through the pipeline, pending until it is migrated, skipped or
+	 * has failed.
+	 */
+	private static class Outcome {
+
+		private final ConvertScheduleInfo scheduleInfo;
+
+		private String migratedScheduleName;
+
+		private String state;
+
+		private Throwable failure;
+
+		private Outcome(ConvertScheduleInfo scheduleInfo) {
+			this.scheduleInfo = scheduleInfo;
+		}
+
+		private boolean isPending() {
+			return this.state == null;
+		}
+
+		private Outcome completed(String migratedScheduleName, String state) {
+			this.migratedScheduleName = migratedScheduleName;
+			this.state = state;
+			return this;
+		}
+
+		private Outcome failed(String migratedScheduleName, Throwable failure) {
+			this.failure = failure;
+			return completed(migratedScheduleName, MigrationMetrics.FAILED);
+		}
+	}
+}
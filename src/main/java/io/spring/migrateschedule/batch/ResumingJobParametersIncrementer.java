@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersIncrementer;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.util.Assert;
+
+/**
+ * Returns the parameters of the last job instance when its last execution failed, was
+ * stopped or was interrupted, so that the job instance is restarted from its last
+ * checkpoint instead of a new job instance migrating every schedule again. Otherwise
+ * the next parameters are those of a {@link RunIdIncrementer}.
+ * <p>
+ * An execution whose process died is still recorded as running. As the migration is
+ * not run concurrently with itself, such an execution and its running steps are marked
+ * as failed so that they can be restarted.
+ */
+public class ResumingJobParametersIncrementer implements JobParametersIncrementer {
+
+	private static final Logger logger = LoggerFactory.getLogger(ResumingJobParametersIncrementer.class);
+
+	private final String jobName;
+
+	private final JobExplorer jobExplorer;
+
+	private final JobRepository jobRepository;
+
+	private final JobParametersIncrementer incrementer = new RunIdIncrementer();
+
+	public ResumingJobParametersIncrementer(String jobName, JobExplorer jobExplorer, JobRepository jobRepository) {
+		Assert.hasText(jobName, "jobName must not be empty");
+		Assert.notNull(jobExplorer, "jobExplorer must not be null");
+		Assert.notNull(jobRepository, "jobRepository must not be null");
+		this.jobName = jobName;
+		this.jobExplorer = jobExplorer;
+		this.jobRepository = jobRepository;
+	}
+
+	@Override
+	public JobParameters getNext(JobParameters parameters) {
+		JobInstance lastJobInstance = this.jobExplorer.getLastJobInstance(this.jobName);
+		JobExecution lastJobExecution = (lastJobInstance != null) ?
+				this.jobExplorer.getLastJobExecution(lastJobInstance) : null;
+		if (lastJobExecution != null) {
+			if (lastJobExecution.getStatus().isRunning()) {
+				markInterrupted(lastJobExecution);
+			}
+			BatchStatus status = lastJobExecution.getStatus();
+			if (status == BatchStatus.FAILED || status == BatchStatus.STOPPED) {
+				logger.info(String.format("Resuming the %s migration of job instance %s",
+						status.name().toLowerCase(), lastJobInstance.getInstanceId()));
+				return lastJobExecution.getJobParameters();
+			}
+		}
+		return this.incrementer.getNext(parameters);
+	}
+
+	private void markInterrupted(JobExecution jobExecution) {
+		Date endTime = new Date();
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			if (stepExecution.getStatus().isRunning()) {
+				stepExecution.setStatus(BatchStatus.FAILED);
+				stepExecution.setExitStatus(ExitStatus.FAILED);
+				stepExecution.setEndTime(endTime);
+				this.jobRepository.update(stepExecution);
+			}
+		}
+		jobExecution.setStatus(BatchStatus.FAILED);
+		jobExecution.setExitStatus(ExitStatus.FAILED);
+		jobExecution.setEndTime(endTime);
+		this.jobRepository.update(jobExecution);
+		logger.warn(String.format("Job execution %s was interrupted", jobExecution.getId()));
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import io.spring.migrateschedule.service.CompactProperties;
+import io.spring.migrateschedule.service.CompactScheduleInfo;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.util.Assert;
+
+/**
+ * The existing schedules, listed once before any schedule is migrated. The migration
+ * removes the schedules from the platform and adds the new ones, which shifts the pages
+ * of the platform, so the schedules are read from this listing instead. The pages of
+ * the platform are retrieved in the background and added to the listing as they
+ * arrive, so that the first schedules can be read while the next pages are retrieved.
+ * The schedules are kept in the order they are listed and indexed by name, a schedule
+ * listed again by a page that shifted is only kept once. A listing that fails is not
+ * retried, the failure is thrown to the readers of the schedules that were not listed.
+ * <p>
+ * The schedules are held as {@link CompactScheduleInfo}s and each schedule read is a
+ * new copy. The time spent listing a page is divided between the schedules of the page
+ * and recorded as their {@link MigrationPhase#LIST} time.
+ */
+public class ScheduleListing {
+
+	private static final Logger logger = LoggerFactory.getLogger(ScheduleListing.class);
+
+	private final MigrateScheduleService migrateScheduleService;
+
+	private final List<ListedSchedule> schedules = new ArrayList<>();
+
+	private final Map<String, Integer> positions = new HashMap<>();
+
+	private final UnaryOperator<String> deduplicator = CompactProperties.deduplicator();
+
+	private boolean started;
+
+	private long lastPageTime;
+
+	private boolean complete;
+
+	private Throwable failure;
+
+	private List<String> scheduleNames;
+
+	public ScheduleListing(MigrateScheduleService migrateScheduleService) {
+		Assert.notNull(migrateScheduleService, "migrateScheduleService must not be null");
+		this.migrateScheduleService = migrateScheduleService;
+	}
+
+	/**
+	 * Wait for the whole listing.
+	 * @return the number of schedules listed.
+	 */
+	public synchronized int size() {
+		awaitComplete();
+		return this.schedules.size();
+	}
+
+	/**
+	 * Wait for the whole listing.
+	 * @return the names of the schedules listed, sorted.
+	 */
+	public synchronized List<String> getScheduleNames() {
+		awaitComplete();
+		if (this.scheduleNames == null) {
+			List<String> result = new ArrayList<>(this.positions.keySet());
+			Collections.sort(result);
+			this.scheduleNames = Collections.unmodifiableList(result);
+		}
+		return this.scheduleNames;
+	}
+
+	/**
+	 * Wait for the schedule at the position provided to be listed.
+	 * @param index the position of the schedule in the listing.
+	 * @return a copy of the schedule at the position provided, or null if fewer schedules
+	 * are listed.
+	 */
+	public synchronized ConvertScheduleInfo getSchedule(int index) {
+		start();
+		while (index >= this.schedules.size() && !this.complete) {
+			await();
+		}
+		if (index < this.schedules.size()) {
+			ListedSchedule schedule = this.schedules.get(index);
+			ConvertScheduleInfo result = schedule.schedule.toScheduleInfo();
+			result.addPhaseTime(MigrationPhase.LIST, schedule.listTime);
+			return result;
+		}
+		rethrowFailure();
+		return null;
+	}
+
+	/**
+	 * Wait for the schedule provided to be listed.
+	 * @param scheduleName the name of a schedule, that does not have to be listed.
+	 * @return the position following the schedule, or 0 if the schedule is not listed.
+	 */
+	public synchronized int positionAfter(String scheduleName) {
+		start();
+		while (!this.positions.containsKey(scheduleName) && !this.complete) {
+			await();
+		}
+		Integer position = this.positions.get(scheduleName);
+		if (position == null) {
+			rethrowFailure();
+			return 0;
+		}
+		return position + 1;
+	}
+
+	private void start() {
+		if (!this.started) {
+			this.started = true;
+			this.lastPageTime = System.nanoTime();
+			try {
+				this.migrateScheduleService.scheduleInfoPages()
+						.subscribeOn(Schedulers.boundedElastic())
+						.subscribe(this::add, this::completed, () -> completed(null));
+			}
+			catch (RuntimeException exception) {
+				completed(exception);
+			}
+		}
+	}
+
+	private synchronized void add(List<ConvertScheduleInfo> page) {
+		long now = System.nanoTime();
+		long listTime = page.isEmpty() ? 0 : (now - this.lastPageTime) / page.size();
+		this.lastPageTime = now;
+		for (ConvertScheduleInfo scheduleInfo : page) {
+			String scheduleName = scheduleInfo.getScheduleName();
+			if (scheduleName != null && !this.positions.containsKey(scheduleName)) {
+				this.positions.put(scheduleName, this.schedules.size());
+				this.schedules.add(new ListedSchedule(CompactScheduleInfo.from(scheduleInfo, this.deduplicator), listTime));
+			}
+		}
+		notifyAll();
+	}
+
+	private synchronized void completed(Throwable failure) {
+		if (this.complete) {
+			return;
+		}
+		this.complete = true;
+		this.failure = failure;
+		if (failure == null) {
+			logger.info(String.format("Listed %s schedules to migrate", this.schedules.size()));
+		}
+		else {
+			logger.error(String.format("Unable to list the schedules after %s schedules", this.schedules.size()),
+					failure);
+		}
+		notifyAll();
+	}
+
+	private void awaitComplete() {
+		start();
+		while (!this.complete) {
+			await();
+		}
+		rethrowFailure();
+	}
+
+	private void await() {
+		try {
+			wait();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while listing the schedules", exception);
+		}
+	}
+
+	private void rethrowFailure() {
+		if (this.failure instanceof RuntimeException) {
+			throw (RuntimeException) this.failure;
+		}
+		if (this.failure != null) {
+			throw new IllegalStateException("Unable to list the schedules", this.failure);
+		}
+	}
+
+	private static class ListedSchedule {
+
+		private final CompactScheduleInfo schedule;
+
+		private final long listTime;
+
+		private ListedSchedule(CompactScheduleInfo schedule, long listTime) {
+			this.schedule = schedule;
+			this.listTime = listTime;
+		}
+	}
+}
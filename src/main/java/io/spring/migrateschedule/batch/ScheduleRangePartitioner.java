@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.Assert;
+
+/**
+ * Splits the schedules of the {@link ScheduleListing} into contiguous ranges of
+ * schedule names, one per partition. Each range starts after the last schedule name of
+ * the previous range, the first range has no lower bound and the last range has no
+ * upper bound. Any schedule name therefore belongs to exactly one partition, including
+ * the names listed again when a partition is restarted.
+ */
+public class ScheduleRangePartitioner implements Partitioner {
+
+	public static final String AFTER_SCHEDULE_KEY = "afterSchedule";
+
+	public static final String LAST_SCHEDULE_KEY = "lastSchedule";
+
+	private static final String PARTITION_PREFIX = "partition";
+
+	private final ScheduleListing scheduleListing;
+
+	public ScheduleRangePartitioner(ScheduleListing scheduleListing) {
+		Assert.notNull(scheduleListing, "scheduleListing must not be null");
+		this.scheduleListing = scheduleListing;
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		List<String> scheduleNames = this.scheduleListing.getScheduleNames();
+		int scheduleCount = scheduleNames.size();
+		int partitionCount = Math.max(1, Math.min(gridSize, scheduleCount));
+		int schedulesPerPartition = scheduleCount / partitionCount;
+		int remainder = scheduleCount % partitionCount;
+
+		Map<String, ExecutionContext> result = new HashMap<>(partitionCount);
+		int first = 0;
+		for (int i = 0; i < partitionCount; i++) {
+			int last = first + schedulesPerPartition - 1 + ((i < remainder) ? 1 : 0);
+			ExecutionContext executionContext = new ExecutionContext();
+			if (first > 0) {
+				executionContext.putString(AFTER_SCHEDULE_KEY, scheduleNames.get(first - 1));
+			}
+			if (i < partitionCount - 1) {
+				executionContext.putString(LAST_SCHEDULE_KEY, scheduleNames.get(last));
+			}
+			result.put(PARTITION_PREFIX + i, executionContext);
+			first = last + 1;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.ScheduleSnapshotEntry;
+import io.spring.migrateschedule.service.SnapshotMigrateSchedulerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+/**
+ * Exports the schedules listed from the platform, with the environment of the
+ * application each of them launches, to a snapshot that the
+ * {@link SnapshotMigrateSchedulerService} migrates from. The environments of a chunk
+ * are prefetched in bulk, so that the snapshot is exported in a single pass over the
+ * schedules. The snapshot is gzip compressed when the file name ends with {@code .gz},
+ * is opened when the job starts and is completed when the job ends.
+ */
+public class ScheduleSnapshotWriter implements ItemWriter, JobExecutionListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(ScheduleSnapshotWriter.class);
+
+	private static final String GZIP_EXTENSION = ".gz";
+
+	private final MigrateScheduleService scheduleService;
+
+	private final String snapshotFile;
+
+	private final ObjectWriter objectWriter = new ObjectMapper()
+			.setSerializationInclusion(JsonInclude.Include.NON_NULL)
+			.writerFor(ScheduleSnapshotEntry.class);
+
+	private MigrationMetrics migrationMetrics = new MigrationMetrics();
+
+	private BufferedWriter writer;
+
+	public ScheduleSnapshotWriter(MigrateScheduleService scheduleService, String snapshotFile) {
+		Assert.notNull(scheduleService, "scheduleService must not be null");
+		Assert.hasText(snapshotFile, "snapshotFile must not be empty");
+		this.scheduleService = scheduleService;
+		this.snapshotFile = snapshotFile;
+	}
+
+	public void setMigrationMetrics(MigrationMetrics migrationMetrics) {
+		this.migrationMetrics = migrationMetrics;
+	}
+
+	@Override
+	public synchronized void beforeJob(JobExecution jobExecution) {
+		try {
+			OutputStream outputStream = Files.newOutputStream(Paths.get(this.snapshotFile));
+			if (this.snapshotFile.endsWith(GZIP_EXTENSION)) {
+				outputStream = new GZIPOutputStream(outputStream);
+			}
+			this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		}
+		catch (IOException exception) {
+			throw new IllegalStateException(String.format("Unable to create the schedule snapshot %s", this.snapshotFile),
+					exception);
+		}
+	}
+
+	@Override
+	public synchronized void afterJob(JobExecution jobExecution) {
+		if (this.writer != null) {
+			try {
+				this.writer.close();
+			}
+			catch (IOException exception) {
+				logger.warn(String.format("Unable to close the schedule snapshot %s", this.snapshotFile), exception);
+			}
+			this.writer = null;
+		}
+	}
+
+	@Override
+	public void write(List list) throws IOException {
+		List<ConvertScheduleInfo> scheduleInfos = new ArrayList<>(list.size());
+		for (Object item : list) {
+			scheduleInfos.add((ConvertScheduleInfo) item);
+		}
+		this.scheduleService.prefetchScheduleMetadata(scheduleInfos);
+		List<String> lines = new ArrayList<>(scheduleInfos.size());
+		for (ConvertScheduleInfo scheduleInfo : scheduleInfos) {
+			lines.add(this.objectWriter.writeValueAsString(
+					new ScheduleSnapshotEntry(scheduleInfo, this.scheduleService.getScheduleEnvironment(scheduleInfo))));
+		}
+		synchronized (this) {
+			Assert.state(this.writer != null, "The schedule snapshot is not open");
+			for (String line : lines) {
+				this.writer.write(line);
+				this.writer.newLine();
+			}
+		}
+		this.migrationMetrics.schedules(MigrationMetrics.EXPORTED, lines.size());
+	}
+}
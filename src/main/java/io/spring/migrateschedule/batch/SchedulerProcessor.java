@@ -16,22 +16,134 @@
 
 package io.spring.migrateschedule.batch;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import io.spring.migrateschedule.service.ConvertScheduleInfo;
 import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.MigrationPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.item.ItemProcessor;
 
-public class SchedulerProcessor<T> implements ItemProcessor {
+/**
+ * Enriches each schedule. The schedules read for a chunk are collected so that the
+ * metadata for the whole chunk can be prefetched in bulk before the first schedule of
+ * the chunk is enriched. Schedules created by a previous migration are filtered out.
+ * The processor keeps track of the schedules that failed during a single step
+ * execution, so a processor is created for each step execution.
+ */
+public class SchedulerProcessor<T> implements ItemProcessor, ItemReadListener, ChunkListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(SchedulerProcessor.class);
 
 	private MigrateScheduleService migrateScheduleService;
 
+	private MigrationMetrics migrationMetrics = new MigrationMetrics();
+
+	private MigrationReport migrationReport;
+
+	private final Set<String> failedSchedules = ConcurrentHashMap.newKeySet();
+
+	private final ThreadLocal<List<ConvertScheduleInfo>> unprocessedItems = ThreadLocal.withInitial(ArrayList::new);
+
 	public SchedulerProcessor(MigrateScheduleService migrateScheduleService) {
 		this.migrateScheduleService = migrateScheduleService;
 	}
 
 	@Override
 	public Object process(Object o){
-		return this.migrateScheduleService.enrichScheduleMetadata((ConvertScheduleInfo) o);
+		List<ConvertScheduleInfo> chunk = this.unprocessedItems.get();
+		if (!chunk.isEmpty()) {
+			prefetch(new ArrayList<>(chunk));
+			chunk.clear();
+		}
+		if (this.migrateScheduleService.isMigratedSchedule((ConvertScheduleInfo) o)) {
+			// created by a previous run of an interrupted migration.
+			this.migrationMetrics.schedules(MigrationMetrics.SKIPPED, 1);
+			return null;
+		}
+		ConvertScheduleInfo scheduleInfo = (ConvertScheduleInfo) o;
+		ConvertScheduleInfo result;
+		long start = System.nanoTime();
+		try {
+			result = this.migrateScheduleService.enrichScheduleMetadata(scheduleInfo);
+		}
+		catch (RuntimeException exception) {
+			scheduleInfo.addPhaseTime(MigrationPhase.ENRICH, System.nanoTime() - start);
+			// a schedule is processed again when its chunk is retried, it only counts as failed once.
+			if (this.failedSchedules.add(scheduleInfo.getScheduleName())) {
+				this.migrationMetrics.schedules(MigrationMetrics.FAILED, 1);
+				if (this.migrationReport != null) {
+					this.migrationReport.report(scheduleInfo, null, MigrationMetrics.FAILED, exception);
+				}
+			}
+			throw exception;
+		}
+		if (result != null) {
+			result.addPhaseTime(MigrationPhase.ENRICH, System.nanoTime() - start);
+		}
+		this.migrationMetrics.schedules(MigrationMetrics.ENRICHED, 1);
+		return result;
+	}
+
+	public void setMigrationMetrics(MigrationMetrics migrationMetrics) {
+		this.migrationMetrics = migrationMetrics;
+	}
+
+	/**
+	 * Establish the {@link MigrationReport} the schedules that cannot be enriched are
+	 * recorded in.
+	 * @param migrationReport the migration report or null for none.
+	 */
+	public void setMigrationReport(MigrationReport migrationReport) {
+		this.migrationReport = migrationReport;
+	}
+
+	@Override
+	public void afterRead(Object item) {
+		if (!this.migrateScheduleService.isMigratedSchedule((ConvertScheduleInfo) item)) {
+			this.unprocessedItems.get().add((ConvertScheduleInfo) item);
+		}
+	}
+
+	@Override
+	public void beforeRead() {
+	}
+
+	@Override
+	public void onReadError(Exception ex) {
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		this.unprocessedItems.remove();
 	}
 
+	@Override
+	public void afterChunk(ChunkContext context) {
+		this.unprocessedItems.remove();
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		this.unprocessedItems.remove();
+	}
+
+	private void prefetch(List<ConvertScheduleInfo> chunk) {
+		try {
+			this.migrateScheduleService.prefetchScheduleMetadata(chunk);
+		}
+		catch (RuntimeException exception) {
+			// each schedule retrieves its own metadata when it is enriched.
+			logger.warn(String.format("Unable to prefetch the metadata for %s schedules", chunk.size()), exception);
+		}
+	}
 }
@@ -16,36 +16,135 @@
 
 package io.spring.migrateschedule.batch;
 
-import java.util.List;
-
-import io.jsonwebtoken.lang.Assert;
 import io.spring.migrateschedule.service.ConvertScheduleInfo;
-import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads the existing schedules from a {@link ScheduleListing} taken before any schedule
+ * is migrated, in the order they are listed, starting as soon as the first page of the
+ * listing is retrieved. The name of the last schedule read is stored in the
+ * {@link ExecutionContext}. A restarted step resumes after that schedule when it is
+ * listed again, which relies on the platform listing its schedules in the same order.
+ * Otherwise the schedule was migrated and the step reads the remaining schedules from
+ * the start of the listing, the schedules already migrated are no longer listed. The
+ * reader can be limited to a range of schedule names so that each partition of a
+ * partitioned step reads its own schedules.
+ */
+public class SchedulerReader<T> extends ItemStreamSupport implements ItemStreamReader {
+
+	private static final String LAST_SCHEDULE_KEY = "last.schedule";
+
+	private final ScheduleListing scheduleListing;
+
+	private MigrationMetrics migrationMetrics = new MigrationMetrics();
+
+	private String afterScheduleName;
 
+	private String lastScheduleName;
 
-import org.springframework.batch.item.ItemReader;
-import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
+	private boolean saveState = true;
 
-public class SchedulerReader<T> implements ItemReader {
+	private boolean opened;
 
-	private List<ConvertScheduleInfo> scheduleInfoList;
+	private int index;
 
-	private int currentOffset;
+	private String lastReadScheduleName;
+
+	public SchedulerReader(ScheduleListing scheduleListing) {
+		Assert.notNull(scheduleListing, "scheduleListing must not be null");
+		this.scheduleListing = scheduleListing;
+		setName(ClassUtils.getShortName(SchedulerReader.class));
+	}
+
+	@Override
+	public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+		this.index = 0;
+		this.lastReadScheduleName = null;
+		if (this.saveState) {
+			this.lastReadScheduleName = executionContext.getString(getExecutionContextKey(LAST_SCHEDULE_KEY), null);
+		}
+		if (this.lastReadScheduleName != null) {
+			this.index = this.scheduleListing.positionAfter(this.lastReadScheduleName);
+		}
+		this.opened = true;
+	}
 
-	private int scheduleCount;
+	@Override
+	public synchronized void update(ExecutionContext executionContext) throws ItemStreamException {
+		if (this.saveState && this.lastReadScheduleName != null) {
+			executionContext.putString(getExecutionContextKey(LAST_SCHEDULE_KEY), this.lastReadScheduleName);
+		}
+	}
 
-	public SchedulerReader(MigrateScheduleService migrateScheduleService) {
-		Assert.notNull(migrateScheduleService, "convertScheduleService must not be null");
-		scheduleInfoList = migrateScheduleService.scheduleInfoList();
-		scheduleCount = scheduleInfoList.size();
+	@Override
+	public synchronized void close() throws ItemStreamException {
+		this.opened = false;
 	}
 
 	@Override
-	public Object read() throws Exception {
-		ScheduleInfo result = null;
-		if(currentOffset < scheduleCount) {
-			result =  scheduleInfoList.get(currentOffset++);
+	public synchronized Object read() {
+		if (!this.opened) {
+			open(new ExecutionContext());
 		}
+		ConvertScheduleInfo result;
+		do {
+			result = this.scheduleListing.getSchedule(this.index++);
+			if (result == null) {
+				this.index--;
+				return null;
+			}
+		}
+		while (!isInRange(result.getScheduleName()));
+		this.lastReadScheduleName = result.getScheduleName();
+		this.migrationMetrics.schedules(MigrationMetrics.READ, 1);
 		return result;
 	}
+
+	private boolean isInRange(String scheduleName) {
+		return (this.afterScheduleName == null || scheduleName.compareTo(this.afterScheduleName) > 0)
+				&& (this.lastScheduleName == null || scheduleName.compareTo(this.lastScheduleName) <= 0);
+	}
+
+	/**
+	 * Establish the {@link MigrationMetrics} counting the schedules read.
+	 * @param migrationMetrics the migration metrics.
+	 */
+	public void setMigrationMetrics(MigrationMetrics migrationMetrics) {
+		Assert.notNull(migrationMetrics, "migrationMetrics must not be null");
+		this.migrationMetrics = migrationMetrics;
+	}
+
+	/**
+	 * Establish whether the name of the last schedule read is stored in the
+	 * {@link ExecutionContext} and used when the step is restarted.
+	 * @param saveState false to read from the first schedule when restarted, defaults to true.
+	 */
+	public void setSaveState(boolean saveState) {
+		this.saveState = saveState;
+	}
+
+	/**
+	 * Establish the name the schedules read come after.
+	 * @param afterScheduleName the lower bound of the schedule names, exclusive,
+	 * defaults to reading from the first schedule listed.
+	 */
+	public void setAfterScheduleName(String afterScheduleName) {
+		this.afterScheduleName = afterScheduleName;
+	}
+
+	/**
+	 * Establish the name of the last schedule to be read.
+	 * @param lastScheduleName the last schedule name, inclusive, defaults to the last
+	 * schedule listed.
+	 */
+	public void setLastScheduleName(String lastScheduleName) {
+		this.lastScheduleName = lastScheduleName;
+	}
 }
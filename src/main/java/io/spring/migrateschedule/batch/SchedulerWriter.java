@@ -16,16 +16,46 @@
 
 package io.spring.migrateschedule.batch;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import io.spring.migrateschedule.service.ConvertScheduleInfo;
 import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
 import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
+import org.springframework.core.task.TaskExecutor;
 
+/**
+ * Migrates the schedules of a chunk with
+ * {@link MigrateScheduleService#migrateSchedule(Scheduler, ConvertScheduleInfo)}. By
+ * default each schedule is migrated one after the other. When a {@link TaskExecutor}
+ * is set, the schedules of the chunk are migrated concurrently. Schedules that were
+ * migrated by a previous attempt of the same chunk are not migrated again, and the new
+ * schedules that were created by a previous attempt are not created again, so that
+ * the chunk can be retried or scanned item by item after a failure.
+ * <p>
+ * The schedules of the target scheduler are listed once, when the first chunk of the
+ * step is written. New schedules that already exist, because they were created by an
+ * interrupted run, are not created again and only the original schedule is removed if
+ * it still exists, so that a restarted migration only performs the remaining work.
+ * The writer keeps track of the schedules of a single step execution, so a writer is
+ * created for each step execution.
+ * <p>
+ * When a {@link MigrationReport} is set, the outcome of each schedule is recorded in
+ * it. A schedule that fails is counted and reported as failed once, however often its
+ * chunk is retried.
+ */
 public class SchedulerWriter<T> implements ItemWriter {
 
 	private static final Logger logger = LoggerFactory.getLogger(SchedulerWriter.class);
@@ -34,13 +64,62 @@ public class SchedulerWriter<T> implements ItemWriter {
 
 	private MigrateScheduleService scheduleService;
 
+	private TaskExecutor taskExecutor;
+
+	private MigrationMetrics migrationMetrics = new MigrationMetrics();
+
+	private MigrationReport migrationReport;
+
+	private final Set<String> scheduledSchedules = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> migratedSchedules = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> failedSchedules = ConcurrentHashMap.newKeySet();
+
+	private volatile Set<String> existingSchedules;
+
 	@Override
 	public void write(List list) {
-		list.stream().forEach(item -> {
-			ConvertScheduleInfo scheduleInfo = ((ConvertScheduleInfo) item);
-			scheduleService.migrateSchedule(scheduler, scheduleInfo);
-			logger.info(String.format("Migrated Schedule %s ", scheduleInfo.getScheduleName()));
-		});
+		Set<String> existingSchedules = getExistingSchedules();
+		List<ConvertScheduleInfo> scheduleInfos = new ArrayList<>(list.size());
+		for (Object item : list) {
+			ConvertScheduleInfo scheduleInfo = (ConvertScheduleInfo) item;
+			String scheduleName = scheduleInfo.getScheduleName();
+			if (this.migratedSchedules.contains(scheduleName)) {
+				logger.info(String.format("Schedule %s already migrated", scheduleName));
+			}
+			else if (existingSchedules.contains(this.scheduleService.getMigratedScheduleName(scheduleInfo))) {
+				if (existingSchedules.contains(scheduleName)) {
+					// the new schedule was created by a previous run, only the original remains.
+					this.scheduledSchedules.add(scheduleName);
+					scheduleInfos.add(scheduleInfo);
+				}
+				else {
+					this.migratedSchedules.add(scheduleName);
+					this.migrationMetrics.schedules(MigrationMetrics.SKIPPED, 1);
+					report(scheduleInfo, MigrationMetrics.SKIPPED, null);
+					logger.info(String.format("Schedule %s already migrated by a previous run", scheduleName));
+				}
+			}
+			else {
+				scheduleInfos.add(scheduleInfo);
+			}
+		}
+		if (this.taskExecutor == null) {
+			scheduleInfos.forEach(scheduleInfo -> {
+				try {
+					migrate(scheduleInfo);
+				}
+				catch (RuntimeException exception) {
+					failed(scheduleInfo, exception);
+					throw exception;
+				}
+				migrated(scheduleInfo);
+			});
+		}
+		else {
+			writeConcurrently(scheduleInfos);
+		}
 	}
 
 	public void setScheduler(Scheduler scheduler) {
@@ -50,4 +129,122 @@ public class SchedulerWriter<T> implements ItemWriter {
 	public void setScheduleService(MigrateScheduleService scheduleService) {
 		this.scheduleService = scheduleService;
 	}
+
+	/**
+	 * Set the executor used to create and remove the schedules of a chunk
+	 * concurrently. The concurrency is bounded by the executor.
+	 * @param taskExecutor the executor or null to migrate the schedules one after the other.
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	public void setMigrationMetrics(MigrationMetrics migrationMetrics) {
+		this.migrationMetrics = migrationMetrics;
+	}
+
+	/**
+	 * Establish the {@link MigrationReport} the outcome of each schedule is recorded in.
+	 * @param migrationReport the migration report or null for none.
+	 */
+	public void setMigrationReport(MigrationReport migrationReport) {
+		this.migrationReport = migrationReport;
+	}
+
+	private Set<String> getExistingSchedules() {
+		Set<String> result = this.existingSchedules;
+		if (result == null) {
+			synchronized (this) {
+				result = this.existingSchedules;
+				if (result == null) {
+					List<ScheduleInfo> scheduleInfos = this.migrationMetrics.remoteCall(MigrationMetrics.LIST_SCHEDULES)
+							.record(() -> this.scheduler.list());
+					result = new HashSet<>();
+					if (scheduleInfos != null) {
+						for (ScheduleInfo scheduleInfo : scheduleInfos) {
+							result.add(scheduleInfo.getScheduleName());
+						}
+					}
+					this.existingSchedules = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	private void migrate(ConvertScheduleInfo scheduleInfo) {
+		if (this.scheduledSchedules.contains(scheduleInfo.getScheduleName())) {
+			scheduleInfo.setMigratedScheduleCreated(true);
+		}
+		try {
+			this.scheduleService.migrateSchedule(this.scheduler, scheduleInfo);
+		}
+		finally {
+			if (scheduleInfo.isMigratedScheduleCreated()) {
+				// a retry of the chunk only removes the original schedule.
+				this.scheduledSchedules.add(scheduleInfo.getScheduleName());
+			}
+		}
+	}
+
+	private void migrated(ConvertScheduleInfo scheduleInfo) {
+		this.migratedSchedules.add(scheduleInfo.getScheduleName());
+		this.scheduledSchedules.remove(scheduleInfo.getScheduleName());
+		this.migrationMetrics.schedules(MigrationMetrics.MIGRATED, 1);
+		report(scheduleInfo, MigrationMetrics.MIGRATED, null);
+		logger.info(String.format("Migrated Schedule %s ", scheduleInfo.getScheduleName()));
+	}
+
+	private void failed(ConvertScheduleInfo scheduleInfo, Throwable failure) {
+		// a schedule is retried with its chunk, it only counts as failed once.
+		if (this.failedSchedules.add(scheduleInfo.getScheduleName())) {
+			this.migrationMetrics.schedules(MigrationMetrics.FAILED, 1);
+			report(scheduleInfo, MigrationMetrics.FAILED, failure);
+		}
+	}
+
+	private void report(ConvertScheduleInfo scheduleInfo, String state, Throwable failure) {
+		if (this.migrationReport != null) {
+			this.migrationReport.report(scheduleInfo, this.scheduleService.getMigratedScheduleName(scheduleInfo),
+					state, failure);
+		}
+	}
+
+	private void writeConcurrently(List<ConvertScheduleInfo> scheduleInfos) {
+		List<RuntimeException> failures = new ArrayList<>();
+		List<ConvertScheduleInfo> migrated = runConcurrently(scheduleInfos, this::migrate, failures);
+		migrated.forEach(this::migrated);
+		if (!failures.isEmpty()) {
+			RuntimeException failure = failures.get(0);
+			failures.stream().skip(1).forEach(failure::addSuppressed);
+			throw failure;
+		}
+	}
+
+	/**
+	 * Applies the action to each schedule on the task executor and waits for all of them
+	 * to complete.
+	 * @return the schedules for which the action succeeded, in the order provided.
+	 */
+	private List<ConvertScheduleInfo> runConcurrently(List<ConvertScheduleInfo> scheduleInfos,
+			Consumer<ConvertScheduleInfo> action, List<RuntimeException> failures) {
+		List<CompletableFuture<Void>> futures = new ArrayList<>(scheduleInfos.size());
+		for (ConvertScheduleInfo scheduleInfo : scheduleInfos) {
+			futures.add(CompletableFuture.runAsync(() -> action.accept(scheduleInfo), this.taskExecutor));
+		}
+		List<ConvertScheduleInfo> result = new ArrayList<>(scheduleInfos.size());
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				futures.get(i).join();
+				result.add(scheduleInfos.get(i));
+			}
+			catch (CompletionException exception) {
+				Throwable cause = exception.getCause();
+				logger.error(String.format("Unable to migrate Schedule %s", scheduleInfos.get(i).getScheduleName()), cause);
+				failures.add((cause instanceof RuntimeException) ? (RuntimeException) cause : exception);
+				failed(scheduleInfos.get(i), cause);
+			}
+		}
+		return result;
+	}
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.util.Assert;
+
+/**
+ * Records the schedules that were skipped because they could not be migrated in a CSV
+ * report, one line per schedule with the phase and the failure. The report is appended
+ * to, so that the schedules skipped by a restarted migration are kept, and is only
+ * created once a schedule is skipped.
+ */
+public class SkippedScheduleReportListener implements SkipListener<ConvertScheduleInfo, ConvertScheduleInfo>,
+		JobExecutionListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(SkippedScheduleReportListener.class);
+
+	private static final String HEADER = "scheduleName,taskDefinitionName,phase,failure";
+
+	private final Path reportFile;
+
+	private BufferedWriter writer;
+
+	public SkippedScheduleReportListener(String reportFile) {
+		Assert.hasText(reportFile, "reportFile must not be empty");
+		this.reportFile = Paths.get(reportFile);
+	}
+
+	@Override
+	public void onSkipInRead(Throwable throwable) {
+		report(null, "read", throwable);
+	}
+
+	@Override
+	public void onSkipInProcess(ConvertScheduleInfo item, Throwable throwable) {
+		report(item, "process", throwable);
+	}
+
+	@Override
+	public void onSkipInWrite(ConvertScheduleInfo item, Throwable throwable) {
+		report(item, "write", throwable);
+	}
+
+	@Override
+	public void beforeJob(JobExecution jobExecution) {
+	}
+
+	@Override
+	public synchronized void afterJob(JobExecution jobExecution) {
+		if (this.writer != null) {
+			try {
+				this.writer.close();
+			}
+			catch (IOException exception) {
+				logger.warn(String.format("Unable to close the skipped schedule report %s", this.reportFile), exception);
+			}
+			this.writer = null;
+		}
+	}
+
+	private synchronized void report(ConvertScheduleInfo scheduleInfo, String phase, Throwable throwable) {
+		String scheduleName = (scheduleInfo != null) ? scheduleInfo.getScheduleName() : null;
+		logger.warn(String.format("Skipped Schedule %s in %s", scheduleName, phase), throwable);
+		try {
+			if (this.writer == null) {
+				boolean newReport = !Files.exists(this.reportFile) || Files.size(this.reportFile) == 0;
+				this.writer = Files.newBufferedWriter(this.reportFile, StandardCharsets.UTF_8,
+						StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+				if (newReport) {
+					this.writer.write(HEADER);
+					this.writer.newLine();
+				}
+			}
+			this.writer.write(String.join(",", MigrationReport.csv(scheduleName),
+					MigrationReport.csv((scheduleInfo != null) ? scheduleInfo.getTaskDefinitionName() : null),
+					phase, MigrationReport.csv(String.valueOf(throwable))));
+			this.writer.newLine();
+			this.writer.flush();
+		}
+		catch (IOException exception) {
+			logger.error(String.format("Unable to write the skipped schedule report %s", this.reportFile), exception);
+		}
+	}
+}
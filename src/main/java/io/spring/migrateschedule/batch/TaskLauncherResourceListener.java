@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+/**
+ * Resolves the task launcher resource before any schedule is migrated so that an
+ * invalid task launcher URL fails the job before it starts.
+ */
+public class TaskLauncherResourceListener implements JobExecutionListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskLauncherResourceListener.class);
+
+	private final MigrateScheduleService migrateScheduleService;
+
+	public TaskLauncherResourceListener(MigrateScheduleService migrateScheduleService) {
+		Assert.notNull(migrateScheduleService, "migrateScheduleService must not be null");
+		this.migrateScheduleService = migrateScheduleService;
+	}
+
+	@Override
+	public void beforeJob(JobExecution jobExecution) {
+		Resource resource = this.migrateScheduleService.resolveTaskLauncherResource();
+		logger.info(String.format("Using task launcher %s", resource));
+	}
+
+	@Override
+	public void afterJob(JobExecution jobExecution) {
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.spring.migrateschedule.service.TransientFailures;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+import org.springframework.util.Assert;
+
+/**
+ * Backs off exponentially, with a random jitter so that the concurrent writers do not
+ * retry in lockstep. When the platform is rate limiting the calls, the back off starts
+ * at half the maximum interval instead, so that the rate of calls drops immediately.
+ */
+public class TransientFailureBackOffPolicy implements BackOffPolicy {
+
+	private static final double MULTIPLIER = 2.0;
+
+	private final ExponentialRandomBackOffPolicy exponentialBackOffPolicy = new ExponentialRandomBackOffPolicy();
+
+	private final long maxInterval;
+
+	private Sleeper sleeper = new ThreadWaitSleeper();
+
+	public TransientFailureBackOffPolicy(long initialInterval, long maxInterval) {
+		Assert.isTrue(initialInterval > 0, "initialInterval must be greater than 0");
+		Assert.isTrue(maxInterval >= initialInterval, "maxInterval must not be less than initialInterval");
+		this.maxInterval = maxInterval;
+		this.exponentialBackOffPolicy.setInitialInterval(initialInterval);
+		this.exponentialBackOffPolicy.setMaxInterval(maxInterval);
+		this.exponentialBackOffPolicy.setMultiplier(MULTIPLIER);
+	}
+
+	public void setSleeper(Sleeper sleeper) {
+		Assert.notNull(sleeper, "sleeper must not be null");
+		this.sleeper = sleeper;
+		this.exponentialBackOffPolicy.setSleeper(sleeper);
+	}
+
+	@Override
+	public BackOffContext start(RetryContext context) {
+		return new TransientFailureBackOffContext(context, this.exponentialBackOffPolicy.start(context));
+	}
+
+	@Override
+	public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+		TransientFailureBackOffContext context = (TransientFailureBackOffContext) backOffContext;
+		Throwable lastThrowable = context.retryContext.getLastThrowable();
+		if (lastThrowable == null || !TransientFailures.isRateLimited(lastThrowable)) {
+			this.exponentialBackOffPolicy.backOff(context.exponentialBackOffContext);
+			return;
+		}
+		long halfInterval = this.maxInterval / 2;
+		try {
+			this.sleeper.sleep(halfInterval + ThreadLocalRandom.current().nextLong(halfInterval + 1));
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new BackOffInterruptedException("Thread interrupted while sleeping", exception);
+		}
+	}
+
+	private static class TransientFailureBackOffContext implements BackOffContext {
+
+		private final RetryContext retryContext;
+
+		private final BackOffContext exponentialBackOffContext;
+
+		TransientFailureBackOffContext(RetryContext retryContext, BackOffContext exponentialBackOffContext) {
+			this.retryContext = retryContext;
+			this.exponentialBackOffContext = exponentialBackOffContext;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.batch;
+
+import io.spring.migrateschedule.service.TransientFailures;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+/**
+ * Retries the schedules that failed with a {@link TransientFailures transient failure},
+ * up to a maximum number of attempts.
+ */
+public class TransientFailureRetryPolicy extends SimpleRetryPolicy {
+
+	public TransientFailureRetryPolicy(int maxAttempts) {
+		super(maxAttempts);
+	}
+
+	@Override
+	public boolean canRetry(RetryContext context) {
+		Throwable lastThrowable = context.getLastThrowable();
+		return (lastThrowable == null || TransientFailures.isTransient(lastThrowable))
+				&& context.getRetryCount() < getMaxAttempts();
+	}
+}
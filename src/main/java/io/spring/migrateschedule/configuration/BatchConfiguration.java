@@ -18,29 +18,63 @@ package io.spring.migrateschedule.configuration;
 
 import io.spring.migrateschedule.service.MigrateScheduleService;
 import io.spring.migrateschedule.service.ConverterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrationEngine;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.MigrationMode;
+import io.spring.migrateschedule.service.VirtualThreadTaskExecutor;
+import io.spring.migrateschedule.batch.MigrationMetricsListener;
+import io.spring.migrateschedule.batch.MigrationPlanReader;
+import io.spring.migrateschedule.batch.MigrationPlanWriter;
+import io.spring.migrateschedule.batch.MigrationReport;
+import io.spring.migrateschedule.batch.ReactiveMigrationTasklet;
+import io.spring.migrateschedule.batch.ResumingJobParametersIncrementer;
+import io.spring.migrateschedule.batch.ScheduleListing;
+import io.spring.migrateschedule.batch.ScheduleRangePartitioner;
+import io.spring.migrateschedule.batch.ScheduleSnapshotWriter;
 import io.spring.migrateschedule.batch.SchedulerProcessor;
 import io.spring.migrateschedule.batch.SchedulerReader;
 import io.spring.migrateschedule.batch.SchedulerWriter;
+import io.spring.migrateschedule.batch.SkippedScheduleReportListener;
+import io.spring.migrateschedule.batch.TaskLauncherResourceListener;
+import io.spring.migrateschedule.batch.TransientFailureBackOffPolicy;
+import io.spring.migrateschedule.batch.TransientFailureRetryPolicy;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParametersIncrementer;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
 import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
 import org.springframework.cloud.task.configuration.EnableTask;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
 
 @Configuration
 @EnableBatchProcessing
 @EnableTask
 public class BatchConfiguration {
 
+	private static final String JOB_NAME = "importUserJob";
 
 	@Autowired
 	public JobBuilderFactory jobBuilderFactory;
@@ -49,41 +83,244 @@ public class BatchConfiguration {
 	public StepBuilderFactory stepBuilderFactory;
 
 	@Bean
-	public Job importUserJob(Step step1) {
-		return jobBuilderFactory.get("importUserJob")
-				.incrementer(new RunIdIncrementer())
-				.flow(step1)
+	public Job importUserJob(Step step1, Step partitionedStep, Step reactiveMigrationStep, Step executePlanStep,
+			Step exportSnapshotStep,
+			ConverterProperties converterProperties, MigrateScheduleService migrateScheduleService,
+			ObjectProvider<Scheduler> scheduler, MigrationMetrics migrationMetrics,
+			MigrationPlanWriter migrationPlanWriter, ScheduleSnapshotWriter scheduleSnapshotWriter,
+			SkippedScheduleReportListener skippedScheduleReportListener, MigrationReport migrationReport,
+			JobExplorer jobExplorer, JobRepository jobRepository) {
+		Step migrationStep = (converterProperties.getConcurrency() > 1) ? partitionedStep : step1;
+		if (converterProperties.getMode() == MigrationMode.MIGRATE
+				&& converterProperties.getEngine() == MigrationEngine.REACTIVE) {
+			migrationStep = reactiveMigrationStep;
+		}
+		else if (converterProperties.getMode() == MigrationMode.EXECUTE_PLAN) {
+			migrationStep = executePlanStep;
+		}
+		else if (converterProperties.getMode() == MigrationMode.EXPORT_SNAPSHOT) {
+			migrationStep = exportSnapshotStep;
+		}
+		Assert.state(scheduler.getIfAvailable() != null || converterProperties.getMode() == MigrationMode.PLAN
+						|| converterProperties.getMode() == MigrationMode.EXPORT_SNAPSHOT,
+				"A scheduler is required to migrate the schedules, activate the cf or kubernetes profile");
+		JobParametersIncrementer incrementer = converterProperties.isResumeMigration() ?
+				new ResumingJobParametersIncrementer(JOB_NAME, jobExplorer, jobRepository) :
+				new RunIdIncrementer();
+		JobBuilder jobBuilder = jobBuilderFactory.get(JOB_NAME)
+				.incrementer(incrementer)
+				.listener(new TaskLauncherResourceListener(migrateScheduleService))
+				.listener(new MigrationMetricsListener(migrationMetrics))
+				.listener(migrationReport);
+		if (converterProperties.getMode() == MigrationMode.PLAN) {
+			jobBuilder.listener(migrationPlanWriter);
+		}
+		else if (converterProperties.getMode() == MigrationMode.EXPORT_SNAPSHOT) {
+			jobBuilder.listener(scheduleSnapshotWriter);
+		}
+		if (converterProperties.getSkipLimit() > 0) {
+			jobBuilder.listener(skippedScheduleReportListener);
+		}
+		return jobBuilder
+				.flow(migrationStep)
 				.end()
 				.build();
 	}
 
 	@Bean
 	public Step step1(SchedulerReader<ScheduleInfo> itemReader,
-			SchedulerProcessor<ScheduleInfo> schedulerProcessor, SchedulerWriter writer) {
-		return stepBuilderFactory.get("step1")
-				.<ScheduleInfo, ScheduleInfo> chunk(10)
+			SchedulerProcessor<ScheduleInfo> schedulerProcessor, SchedulerWriter writer,
+			MigrationPlanWriter migrationPlanWriter, ConverterProperties converterProperties,
+			SkippedScheduleReportListener skippedScheduleReportListener) {
+		return faultTolerant(stepBuilderFactory.get("step1")
+				.<ConvertScheduleInfo, ConvertScheduleInfo> chunk(10)
 				.reader(itemReader)
 				.processor(schedulerProcessor)
-				.writer(writer)
+				.writer((converterProperties.getMode() == MigrationMode.PLAN) ? migrationPlanWriter : writer),
+				converterProperties, skippedScheduleReportListener);
+	}
+
+	@Bean
+	public Step executePlanStep(MigrationPlanReader migrationPlanReader, SchedulerWriter writer,
+			ConverterProperties converterProperties, SkippedScheduleReportListener skippedScheduleReportListener) {
+		return faultTolerant(stepBuilderFactory.get("executePlanStep")
+				.<ConvertScheduleInfo, ConvertScheduleInfo> chunk(10)
+				.reader(migrationPlanReader)
+				.writer(writer),
+				converterProperties, skippedScheduleReportListener);
+	}
+
+	@Bean
+	public Step reactiveMigrationStep(ReactiveMigrationTasklet reactiveMigrationTasklet) {
+		return stepBuilderFactory.get("reactiveMigrationStep")
+				.tasklet(reactiveMigrationTasklet)
+				.build();
+	}
+
+	@Bean
+	public Step exportSnapshotStep(SchedulerReader<ScheduleInfo> itemReader, ScheduleSnapshotWriter scheduleSnapshotWriter,
+			ConverterProperties converterProperties, SkippedScheduleReportListener skippedScheduleReportListener) {
+		return faultTolerant(stepBuilderFactory.get("exportSnapshotStep")
+				.<ConvertScheduleInfo, ConvertScheduleInfo> chunk(10)
+				.reader(itemReader)
+				.writer(scheduleSnapshotWriter),
+				converterProperties, skippedScheduleReportListener);
+	}
+
+	/**
+	 * Retry the schedules that fail with a transient failure and, if a skip limit is
+	 * set, skip and report the schedules that still fail.
+	 */
+	private <I, O> Step faultTolerant(SimpleStepBuilder<I, O> stepBuilder, ConverterProperties converterProperties,
+			SkippedScheduleReportListener skippedScheduleReportListener) {
+		FaultTolerantStepBuilder<I, O> result = stepBuilder.faultTolerant()
+				.retryPolicy(new TransientFailureRetryPolicy(converterProperties.getRetryLimit()))
+				.backOffPolicy(new TransientFailureBackOffPolicy(converterProperties.getRetryInitialIntervalInMillis(),
+						converterProperties.getRetryMaxIntervalInMillis()));
+		if (converterProperties.getSkipLimit() > 0) {
+			result.skip(Exception.class)
+					.skipLimit(converterProperties.getSkipLimit())
+					.listener(skippedScheduleReportListener);
+		}
+		return result.build();
+	}
+
+	@Bean
+	public Step partitionedStep(Step step1, ScheduleListing scheduleListing,
+			TaskExecutor migrationTaskExecutor, ConverterProperties converterProperties) {
+		return stepBuilderFactory.get("partitionedStep")
+				.partitioner(step1.getName(), new ScheduleRangePartitioner(scheduleListing))
+				.step(step1)
+				.gridSize(converterProperties.getConcurrency())
+				.taskExecutor(migrationTaskExecutor)
 				.build();
 	}
 
 	@Bean
-	public SchedulerReader<ScheduleInfo> itemReader(MigrateScheduleService scheduler) {
-		return new SchedulerReader<>(scheduler);
+	public TaskExecutor migrationTaskExecutor(ConverterProperties converterProperties) {
+		if (converterProperties.isVirtualThreads()) {
+			return new VirtualThreadTaskExecutor("migrate-", converterProperties.getConcurrency());
+		}
+		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setCorePoolSize(converterProperties.getConcurrency());
+		taskExecutor.setMaxPoolSize(converterProperties.getConcurrency());
+		taskExecutor.setThreadNamePrefix("migrate-");
+		return taskExecutor;
+	}
+
+	/**
+	 * Creates and removes the schedules of a chunk concurrently. With virtual threads
+	 * each schedule runs on its own virtual thread and the executor is shared by every
+	 * partition, so that it caps the schedules migrated at once.
+	 */
+	@Bean
+	public TaskExecutor writerTaskExecutor(ConverterProperties converterProperties) {
+		if (converterProperties.isVirtualThreads()) {
+			return new VirtualThreadTaskExecutor("schedule-writer-", converterProperties.getVirtualThreadMaxConcurrency());
+		}
+		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setCorePoolSize(converterProperties.getWriterConcurrency());
+		taskExecutor.setMaxPoolSize(converterProperties.getWriterConcurrency());
+		taskExecutor.setThreadNamePrefix("schedule-writer-");
+		return taskExecutor;
+	}
+
+	/**
+	 * The schedules to migrate, listed once per job execution before any schedule is
+	 * migrated and shared by the partitions.
+	 */
+	@Bean
+	@JobScope
+	public ScheduleListing scheduleListing(MigrateScheduleService migrateScheduleService) {
+		return new ScheduleListing(migrateScheduleService);
+	}
+
+	@Bean
+	@StepScope
+	public SchedulerReader<ScheduleInfo> itemReader(ScheduleListing scheduleListing, MigrationMetrics migrationMetrics,
+			@Value("#{stepExecutionContext['" + ScheduleRangePartitioner.AFTER_SCHEDULE_KEY + "']}") String afterSchedule,
+			@Value("#{stepExecutionContext['" + ScheduleRangePartitioner.LAST_SCHEDULE_KEY + "']}") String lastSchedule) {
+		SchedulerReader<ScheduleInfo> result = new SchedulerReader<>(scheduleListing);
+		result.setMigrationMetrics(migrationMetrics);
+		result.setAfterScheduleName(afterSchedule);
+		result.setLastScheduleName(lastSchedule);
+		return result;
 	}
 
 	@Bean
-	public SchedulerWriter<ScheduleInfo> itemWriter(Scheduler scheduler, MigrateScheduleService scheduleService) {
+	@StepScope
+	public SchedulerWriter<ScheduleInfo> itemWriter(ObjectProvider<Scheduler> scheduler, MigrateScheduleService scheduleService,
+			TaskExecutor writerTaskExecutor, ConverterProperties converterProperties,
+			MigrationMetrics migrationMetrics, MigrationReport migrationReport) {
 		SchedulerWriter<ScheduleInfo> result = new SchedulerWriter<>();
-		result.setScheduler(scheduler);
+		result.setMigrationMetrics(migrationMetrics);
+		result.setMigrationReport(migrationReport);
+		result.setScheduler(scheduler.getIfAvailable());
 		result.setScheduleService(scheduleService);
+		if (converterProperties.getWriterConcurrency() > 1 || converterProperties.isVirtualThreads()) {
+			result.setTaskExecutor(writerTaskExecutor);
+		}
+		return result;
+	}
+
+	@Bean
+	public ReactiveMigrationTasklet reactiveMigrationTasklet(MigrateScheduleService scheduleService,
+			ObjectProvider<Scheduler> scheduler, ConverterProperties converterProperties,
+			MigrationMetrics migrationMetrics, MigrationReport migrationReport, TaskExecutor writerTaskExecutor) {
+		ReactiveMigrationTasklet result = new ReactiveMigrationTasklet(scheduleService, scheduler.getIfAvailable(),
+				converterProperties);
+		if (converterProperties.isVirtualThreads()) {
+			result.setTaskExecutor(writerTaskExecutor);
+		}
+		result.setMigrationMetrics(migrationMetrics);
+		result.setMigrationReport(migrationReport);
+		return result;
+	}
+
+	@Bean
+	public MigrationPlanWriter migrationPlanWriter(MigrateScheduleService scheduleService,
+			ConverterProperties converterProperties, MigrationMetrics migrationMetrics) {
+		MigrationPlanWriter result = new MigrationPlanWriter(scheduleService, converterProperties.getPlanFile());
+		result.setMigrationMetrics(migrationMetrics);
+		return result;
+	}
+
+	@Bean
+	public ScheduleSnapshotWriter scheduleSnapshotWriter(MigrateScheduleService scheduleService,
+			ConverterProperties converterProperties, MigrationMetrics migrationMetrics) {
+		ScheduleSnapshotWriter result = new ScheduleSnapshotWriter(scheduleService, converterProperties.getSnapshotFile());
+		result.setMigrationMetrics(migrationMetrics);
+		return result;
+	}
+
+	@Bean
+	public SkippedScheduleReportListener skippedScheduleReportListener(ConverterProperties converterProperties) {
+		return new SkippedScheduleReportListener(converterProperties.getSkippedScheduleReportFile());
+	}
+
+	@Bean
+	public MigrationReport migrationReport(ConverterProperties converterProperties) {
+		return new MigrationReport(converterProperties.getMigrationReportFile());
+	}
+
+	@Bean
+	public MigrationPlanReader migrationPlanReader(ConverterProperties converterProperties) {
+		return new MigrationPlanReader(new FileSystemResource(converterProperties.getPlanFile()));
+	}
+
+	@Bean
+	@StepScope
+	public SchedulerProcessor<ScheduleInfo> itemProcessor(MigrateScheduleService migrateScheduleService,
+			MigrationMetrics migrationMetrics, MigrationReport migrationReport) {
+		SchedulerProcessor<ScheduleInfo> result = new SchedulerProcessor<>(migrateScheduleService);
+		result.setMigrationMetrics(migrationMetrics);
+		result.setMigrationReport(migrationReport);
 		return result;
 	}
 
 	@Bean
-	public SchedulerProcessor<ScheduleInfo> itemProcessor(MigrateScheduleService migrateScheduleService) {
-		return new SchedulerProcessor<>(migrateScheduleService);
+	public MigrationMetrics migrationMetrics(MeterRegistry meterRegistry) {
+		return new MigrationMetrics(meterRegistry);
 	}
 
 	@Bean
@@ -18,15 +18,18 @@ package io.spring.migrateschedule.configuration;
 
 import io.pivotal.reactor.scheduler.ReactorSchedulerClient;
 import io.pivotal.scheduler.SchedulerClient;
+import io.spring.migrateschedule.service.AdaptiveConcurrencyLimiter;
 import io.spring.migrateschedule.service.ConverterProperties;
 import io.spring.migrateschedule.service.CFMigrateSchedulerService;
 import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
 import io.spring.migrateschedule.service.TaskDefinitionRepository;
 import org.cloudfoundry.operations.CloudFoundryOperations;
 import org.cloudfoundry.reactor.ConnectionContext;
 import org.cloudfoundry.reactor.TokenProvider;
 import reactor.core.publisher.Mono;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
@@ -78,19 +81,53 @@ public class CFMigrateScheduleConfiguration {
 		return new CloudFoundrySchedulerProperties();
 	}
 
+	/**
+	 * Limits the concurrent calls to the Cloud Controller.
+	 */
+	@Bean
+	public AdaptiveConcurrencyLimiter cloudControllerLimiter(ConverterProperties converterProperties,
+			MigrationMetrics migrationMetrics) {
+		return createLimiter("cloudController", converterProperties, migrationMetrics);
+	}
+
+	/**
+	 * Limits the concurrent calls to the Scheduler service.
+	 */
+	@Bean
+	public AdaptiveConcurrencyLimiter schedulerLimiter(ConverterProperties converterProperties,
+			MigrationMetrics migrationMetrics) {
+		return createLimiter("scheduler", converterProperties, migrationMetrics);
+	}
+
 	@Bean
 	MigrateScheduleService scheduleService(CloudFoundryOperations cloudFoundryOperations,
 			SchedulerClient schedulerClient,
 			CloudFoundryConnectionProperties properties, ConverterProperties converterProperties,
-			TaskDefinitionRepository taskDefinitionRepository) {
-		return new CFMigrateSchedulerService(cloudFoundryOperations,
-				schedulerClient, properties, converterProperties, taskDefinitionRepository);
+			TaskDefinitionRepository taskDefinitionRepository, MigrationMetrics migrationMetrics,
+			@Qualifier("cloudControllerLimiter") AdaptiveConcurrencyLimiter cloudControllerLimiter,
+			@Qualifier("schedulerLimiter") AdaptiveConcurrencyLimiter schedulerLimiter) {
+		return new CFMigrateSchedulerService(
+				cloudControllerLimiter.wrap(CloudFoundryOperations.class, cloudFoundryOperations),
+				schedulerLimiter.wrap(SchedulerClient.class, schedulerClient),
+				properties, converterProperties, taskDefinitionRepository, migrationMetrics);
 	}
 	@Bean
 	public CloudFoundryAppScheduler scheduler(SchedulerClient client, CloudFoundryOperations operations,
 			CloudFoundryConnectionProperties properties, TaskLauncher taskLauncher,
-			CloudFoundrySchedulerProperties schedulerProperties) {
-		return new CloudFoundryAppScheduler(client, operations, properties,  (CloudFoundryTaskLauncher) taskLauncher, schedulerProperties);
+			CloudFoundrySchedulerProperties schedulerProperties,
+			@Qualifier("cloudControllerLimiter") AdaptiveConcurrencyLimiter cloudControllerLimiter,
+			@Qualifier("schedulerLimiter") AdaptiveConcurrencyLimiter schedulerLimiter) {
+		return new CloudFoundryAppScheduler(schedulerLimiter.wrap(SchedulerClient.class, client),
+				cloudControllerLimiter.wrap(CloudFoundryOperations.class, operations), properties,
+				(CloudFoundryTaskLauncher) taskLauncher, schedulerProperties);
+	}
+
+	private AdaptiveConcurrencyLimiter createLimiter(String name, ConverterProperties converterProperties,
+			MigrationMetrics migrationMetrics) {
+		AdaptiveConcurrencyLimiter result = new AdaptiveConcurrencyLimiter(converterProperties.getCfApiConcurrency(),
+				converterProperties.getCfApiMaxConcurrency());
+		migrationMetrics.registerLimiter(name, result);
+		return result;
 	}
 
 }
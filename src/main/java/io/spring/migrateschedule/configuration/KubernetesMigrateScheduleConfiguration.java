@@ -19,6 +19,7 @@ package io.spring.migrateschedule.configuration;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.spring.migrateschedule.service.ConverterProperties;
 import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
 import io.spring.migrateschedule.service.KubernetesMigrateSchedulerService;
 import io.spring.migrateschedule.service.TaskDefinitionRepository;
 
@@ -38,9 +39,10 @@ import org.springframework.context.annotation.Profile;
 public class KubernetesMigrateScheduleConfiguration {
 
 	@Bean
-	public MigrateScheduleService scheduleService(ConverterProperties converterProperties,
-			TaskDefinitionRepository taskDefinitionRepository) {
-		return new KubernetesMigrateSchedulerService(converterProperties, taskDefinitionRepository);
+	public MigrateScheduleService scheduleService(KubernetesClient kubernetesClient, ConverterProperties converterProperties,
+			TaskDefinitionRepository taskDefinitionRepository, MigrationMetrics migrationMetrics) {
+		return new KubernetesMigrateSchedulerService(kubernetesClient, converterProperties, taskDefinitionRepository,
+				migrationMetrics);
 	}
 	@Bean
 	@ConditionalOnMissingBean
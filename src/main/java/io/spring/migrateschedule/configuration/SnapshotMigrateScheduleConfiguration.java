@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.configuration;
+
+import io.spring.migrateschedule.service.ConverterProperties;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.SnapshotMigrateSchedulerService;
+import io.spring.migrateschedule.service.TaskDefinitionRepository;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Migrates the schedules of a snapshot exported with the EXPORT_SNAPSHOT mode instead
+ * of listing them from the platform. On its own the profile plans the migration
+ * offline, together with the cf or kubernetes profile the schedules of the snapshot
+ * are migrated to the scheduler of that platform.
+ */
+@Configuration
+@Profile("snapshot")
+@EntityScan({
+		"org.springframework.cloud.dataflow.core"
+})
+public class SnapshotMigrateScheduleConfiguration {
+
+	@Bean
+	@Primary
+	public MigrateScheduleService snapshotScheduleService(ConverterProperties converterProperties,
+			TaskDefinitionRepository taskDefinitionRepository, MigrationMetrics migrationMetrics) {
+		return new SnapshotMigrateSchedulerService(converterProperties, taskDefinitionRepository, migrationMetrics);
+	}
+}
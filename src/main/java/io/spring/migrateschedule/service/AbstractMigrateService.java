@@ -16,42 +16,64 @@
 
 package io.spring.migrateschedule.service;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.stream.Collectors;
 
 import org.springframework.cloud.dataflow.core.TaskDefinition;
+import org.springframework.cloud.deployer.resource.docker.DockerResource;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
+import org.springframework.cloud.deployer.spi.core.AppDefinition;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
+import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 public abstract class AbstractMigrateService implements MigrateScheduleService {
 
-	private final static String DATA_FLOW_URI_KEY = "spring.cloud.dataflow.client.serverUri";
-
-	private final static String COMMAND_ARGUMENT_PREFIX = "cmdarg.";
-
 	protected final static String APP_PREFIX = "app.";
 
 	protected final static String DEPLOYER_PREFIX = "deployer.";
 
 	private ConverterProperties converterProperties;
 
-	private TaskDefinitionRepository taskDefinitionRepository;
+	private TaskDefinitionCache taskDefinitionCache;
+
+	private final AppResourceCommon appResourceCommon = new AppResourceCommon(new MavenProperties(), new DefaultResourceLoader());
+
+	private volatile Resource taskLauncherResource;
 
-	public AbstractMigrateService(ConverterProperties converterProperties, TaskDefinitionRepository taskDefinitionRepository) {
+	private volatile PropertyTagger propertyTagger;
+
+	private final MigrationMetrics migrationMetrics;
+
+	public AbstractMigrateService(ConverterProperties converterProperties, TaskDefinitionRepository taskDefinitionRepository,
+			MigrationMetrics migrationMetrics) {
+		Assert.notNull(migrationMetrics, "migrationMetrics must not be null");
 		this.converterProperties = converterProperties;
-		this.taskDefinitionRepository = taskDefinitionRepository;
+		this.migrationMetrics = migrationMetrics;
+		this.taskDefinitionCache = new TaskDefinitionCache(taskDefinitionRepository, converterProperties, migrationMetrics);
 	}
 
 	public TaskDefinition findTaskDefinitionByName(String taskDefinitionName) {
-		return this.taskDefinitionRepository.findByTaskName(taskDefinitionName);
+		return this.taskDefinitionCache.findByTaskName(taskDefinitionName);
+	}
+
+	/**
+	 * @return the cache used to look up task definitions.
+	 */
+	public TaskDefinitionCache getTaskDefinitionCache() {
+		return this.taskDefinitionCache;
+	}
+
+	protected MigrationMetrics getMigrationMetrics() {
+		return this.migrationMetrics;
 	}
 
 	protected String getSchedulePrefix(String taskDefinitionName) {
@@ -60,24 +82,66 @@ public abstract class AbstractMigrateService implements MigrateScheduleService {
 
 	/**
 	 * Retain only properties that are meant for the <em>scheduler</em> of a given task(those
-	 * that start with {@code scheduler.}and qualify all
-	 * property values with the {@code spring.cloud.scheduler.} prefix.
+	 * that start with {@code spring.cloud.scheduler.}). The scheduler properties of a
+	 * {@link ScheduleProperties} are already indexed and returned as a read only view.
 	 *
 	 * @param input the scheduler properties
 	 * @return scheduler properties for the task
 	 */
 	protected static Map<String, String> extractAndQualifySchedulerProperties(Map<String, String> input) {
-		final String prefix = "spring.cloud.scheduler.";
+		if (input instanceof ScheduleProperties) {
+			return ((ScheduleProperties) input).getSchedulerProperties();
+		}
+		Map<String, String> result = new HashMap<>();
+		for (Map.Entry<String, String> entry : input.entrySet()) {
+			if (entry.getKey().startsWith(ScheduleProperties.SCHEDULER_PREFIX)) {
+				result.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
 
-		Map<String, String> result = new TreeMap<>(input).entrySet().stream()
-				.filter(kv -> kv.getKey().startsWith(prefix))
-				.collect(Collectors.toMap(kv -> kv.getKey(), kv -> kv.getValue(),
-						(fromWildcard, fromApp) -> fromApp));
+	@Override
+	public ScheduleRequest createScheduleRequest(ConvertScheduleInfo scheduleInfo) {
+		String scheduleName = getMigratedScheduleName(scheduleInfo);
+		AppDefinition appDefinition = new AppDefinition(scheduleName, scheduleInfo.getAppProperties());
+		Map<String, String> schedulerProperties = extractAndQualifySchedulerProperties(scheduleInfo.getScheduleProperties());
+		return new ScheduleRequest(appDefinition, schedulerProperties, new HashMap<>(), scheduleInfo.getCommandLineArgs(), scheduleName, getTaskLauncherResource());
+	}
 
-		return result;
+	@Override
+	public String getMigratedScheduleName(ConvertScheduleInfo scheduleInfo) {
+		return StringUtils.hasText(scheduleInfo.getMigratedScheduleName()) ?
+				scheduleInfo.getMigratedScheduleName() :
+				scheduleInfo.getScheduleName() + "-" + getSchedulePrefix(scheduleInfo.getTaskDefinitionName());
+	}
+
+	@Override
+	public boolean isMigratedSchedule(ScheduleInfo scheduleInfo) {
+		return scheduleInfo.getScheduleName() != null &&
+				scheduleInfo.getScheduleName().contains("-" + converterProperties.getSchedulerPrefix());
 	}
 
 	protected Resource getTaskLauncherResource() {
+		return resolveTaskLauncherResource();
+	}
+
+	@Override
+	public Resource resolveTaskLauncherResource() {
+		Resource result = this.taskLauncherResource;
+		if (result == null) {
+			synchronized (this) {
+				result = this.taskLauncherResource;
+				if (result == null) {
+					result = createTaskLauncherResource();
+					this.taskLauncherResource = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	private Resource createTaskLauncherResource() {
 		final URI url;
 		try {
 			url = new URI(this.converterProperties.getSchedulerTaskLauncherUrl());
@@ -85,53 +149,123 @@ public abstract class AbstractMigrateService implements MigrateScheduleService {
 		catch (URISyntaxException urise) {
 			throw new IllegalStateException(urise);
 		}
-		AppResourceCommon appResourceCommon = new AppResourceCommon(new MavenProperties(), new DefaultResourceLoader());
-		return appResourceCommon.getResource(this.converterProperties.getSchedulerTaskLauncherUrl());
+		Resource resource = this.appResourceCommon.getResource(this.converterProperties.getSchedulerTaskLauncherUrl());
+		if (this.converterProperties.isPreDownloadTaskLauncher() && !(resource instanceof DockerResource)) {
+			try {
+				// resolving the file downloads maven artifacts into the local repository.
+				resource.getFile();
+			}
+			catch (IOException exception) {
+				throw new IllegalStateException(String.format("Unable to download the task launcher %s", url), exception);
+			}
+		}
+		return resource;
 	}
 
-	protected List<String> tagCommandLineArgs(List<String> args) {
-		List<String> taggedArgs = new ArrayList<>();
+	@Override
+	public void migrateSchedule(Scheduler scheduler, ConvertScheduleInfo scheduleInfo) {
+		if (!scheduleInfo.isMigratedScheduleCreated()) {
+			ScheduleRequest scheduleRequest = createScheduleRequest(scheduleInfo);
+			this.migrationMetrics.timeRemoteCall(MigrationMetrics.SCHEDULE, scheduleInfo, MigrationPhase.SCHEDULE,
+					() -> scheduler.schedule(scheduleRequest));
+			scheduleInfo.setMigratedScheduleCreated(true);
+			markMigratedSchedule(scheduleInfo);
+		}
+		this.migrationMetrics.timeRemoteCall(MigrationMetrics.UNSCHEDULE, scheduleInfo, MigrationPhase.UNSCHEDULE,
+				() -> scheduler.unschedule(scheduleInfo.getScheduleName()));
+	}
 
-		for(String arg : args) {
-			if(arg.contains("spring.cloud.task.name")) {
-				continue;
-			}
-			String updatedArg = arg;
-			if (!arg.startsWith(DATA_FLOW_URI_KEY) && !"--".concat(arg).startsWith(DATA_FLOW_URI_KEY)) {
-				updatedArg = COMMAND_ARGUMENT_PREFIX +
-						converterProperties.getTaskLauncherPrefix() + "." + arg;
-			}
-			taggedArgs.add(updatedArg);
+	/**
+	 * Add the environment of the application to the schedule properties and tag the
+	 * schedule with the app properties of its SPRING_APPLICATION_JSON.
+	 * @param scheduleInfo the schedule to update.
+	 * @param environment the environment of the application launched by the schedule.
+	 * @return the updated schedule.
+	 */
+	protected ConvertScheduleInfo enrichScheduleMetadata(ConvertScheduleInfo scheduleInfo,
+			Map<String, String> environment) {
+		scheduleInfo.getScheduleProperties().putAll(environment);
+		Map<String, String> appProperties = getSpringAppProperties(scheduleInfo.getScheduleProperties());
+		TaskDefinition taskDefinition = findTaskDefinitionByName(appProperties.get("spring.cloud.task.name"));
+		if (appProperties.size() > 0 && taskDefinition == null) {
+			throw new IllegalStateException(String.format("The schedule %s contains " +
+							"properties but the task definition %s does not exist and thus can't be migrated",
+					scheduleInfo.getScheduleName(), scheduleInfo.getTaskDefinitionName()));
 		}
-		return taggedArgs;
+		return tagScheduleMetadata(scheduleInfo, taskDefinition, appProperties);
 	}
 
-	protected Map<String, String> tagProperties(String appName, Map<String, String> appProperties, String prefix) {
-		Map<String, String> taggedAppProperties = new HashMap<>(appProperties.size());
+	/**
+	 * Tag the command line arguments and app properties of the schedule so that they
+	 * are passed through the task launcher to the task application.
+	 * @param scheduleInfo the schedule to update.
+	 * @param taskDefinition the task definition launched by the schedule.
+	 * @param appProperties the app properties of the schedule.
+	 * @return the updated schedule.
+	 */
+	protected ConvertScheduleInfo tagScheduleMetadata(ConvertScheduleInfo scheduleInfo,
+			TaskDefinition taskDefinition, Map<String, String> appProperties) {
+		PropertyTagger propertyTagger = getPropertyTagger();
+		List<String> revisedCommandLineArgs = propertyTagger.tagCommandLineArgs(scheduleInfo.getCommandLineArgs());
+		revisedCommandLineArgs.add("--spring.cloud.scheduler.task.launcher.taskName=" + scheduleInfo.getTaskDefinitionName());
+		scheduleInfo.setCommandLineArgs(revisedCommandLineArgs);
+		scheduleInfo.setAppProperties(propertyTagger.tagSchedulerAppProperties(
+				taskDefinition.getRegisteredAppName(), appProperties, APP_PREFIX));
+		return scheduleInfo;
+	}
 
-		for(String key : appProperties.keySet()) {
-			if(key.contains("spring.cloud.task.name")) {
-				continue;
+	/**
+	 * Retrieve the app properties stored in the SPRING_APPLICATION_JSON of the
+	 * properties provided.
+	 * @param properties the properties that may contain SPRING_APPLICATION_JSON.
+	 * @return the flattened app properties or an empty map if there are none.
+	 */
+	protected Map<String, String> getSpringAppProperties(Map<String, String> properties) {
+		Map<String, String> result;
+		if(properties.containsKey("SPRING_APPLICATION_JSON")) {
+			try {
+				result = SpringApplicationJson.parse(properties.get("SPRING_APPLICATION_JSON"));
 			}
-			String updatedKey = key;
-			if (!key.startsWith(DATA_FLOW_URI_KEY)) {
-				if (StringUtils.hasText(appName)) {
-					updatedKey = converterProperties.getTaskLauncherPrefix() + "." +
-							prefix + appName + "." + key;
-				}
-				else {
-					updatedKey = converterProperties.getTaskLauncherPrefix() + "." +
-							prefix + key;
-				}
+			catch (Exception exception) {
+				throw new IllegalArgumentException("Unable to parse SPRING_APPLICATION_JSON from USER VARIABLES", exception);
 			}
-			taggedAppProperties.put(updatedKey, appProperties.get(key));
 		}
-		return taggedAppProperties;
+		else {
+			result = new HashMap<>();
+		}
+		return result;
+	}
+
+	protected List<String> tagCommandLineArgs(List<String> args) {
+		return getPropertyTagger().tagCommandLineArgs(args);
+	}
+
+	protected Map<String, String> tagProperties(String appName, Map<String, String> appProperties, String prefix) {
+		return getPropertyTagger().tagProperties(appName, appProperties, prefix);
 	}
 
 	protected Map<String, String> addSchedulerAppProps(Map<String, String> properties) {
 		Map<String, String> appProperties = new HashMap<>(properties);
-		appProperties.put("spring.cloud.dataflow.client.serverUri", converterProperties.getDataflowServerUri());
+		appProperties.put(PropertyTagger.DATA_FLOW_URI_KEY, converterProperties.getDataflowServerUri());
 		return appProperties;
 	}
+
+	/**
+	 * @return the {@link PropertyTagger} for the task launcher prefix of the migration,
+	 * created on first use.
+	 */
+	protected PropertyTagger getPropertyTagger() {
+		PropertyTagger result = this.propertyTagger;
+		if (result == null) {
+			synchronized (this) {
+				result = this.propertyTagger;
+				if (result == null) {
+					result = new PropertyTagger(this.converterProperties.getTaskLauncherPrefix(),
+							this.converterProperties.getDataflowServerUri());
+					this.propertyTagger = result;
+				}
+			}
+		}
+		return result;
+	}
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Limits the number of concurrent calls to a platform API. The limit is adjusted with
+ * an additive increase, multiplicative decrease (AIMD) algorithm: it grows by one while
+ * the calls succeed and the limit is in use, and is reduced when the platform is
+ * {@link TransientFailures#isRateLimited rate limiting} the calls. The calls in flight
+ * when the platform starts rate limiting all fail together, so the limit is reduced
+ * once for them: only the calls started after the last reduction reduce it again.
+ * Calls made above the limit wait, without blocking a thread, until a call completes.
+ * <p>
+ * A call is the subscription to a {@link Mono} or {@link Flux} returned by the API, it
+ * holds its permit until it terminates or is cancelled.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final double BACKOFF_RATIO = 0.5;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final Deque<Permit> waiting = new ArrayDeque<>();
+
+	private double limit;
+
+	private int inFlight;
+
+	private long reductions;
+
+	public AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit) {
+		Assert.isTrue(initialLimit > 0, "initialLimit must be greater than 0");
+		Assert.isTrue(maxLimit >= initialLimit, "maxLimit must not be less than initialLimit");
+		this.minLimit = 1;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+	}
+
+	/**
+	 * @return the current number of concurrent calls allowed.
+	 */
+	public synchronized int getLimit() {
+		return (int) this.limit;
+	}
+
+	/**
+	 * @return the number of calls in flight.
+	 */
+	public synchronized int getInFlight() {
+		return this.inFlight;
+	}
+
+	/**
+	 * @return the number of calls waiting for a permit.
+	 */
+	public synchronized int getQueueDepth() {
+		return this.waiting.size();
+	}
+
+	/**
+	 * Limit the call made with the {@link Mono} provided.
+	 * @param mono the call.
+	 * @return the limited call.
+	 */
+	public <T> Mono<T> limit(Mono<T> mono) {
+		return Mono.defer(() -> {
+			Permit permit = new Permit();
+			return acquire(permit).then(mono)
+					.doOnSuccess(value -> permit.release(null))
+					.doOnError(permit::release)
+					.doOnCancel(permit::cancel);
+		});
+	}
+
+	/**
+	 * Limit the call made with the {@link Flux} provided.
+	 * @param flux the call.
+	 * @return the limited call.
+	 */
+	public <T> Flux<T> limit(Flux<T> flux) {
+		return Flux.defer(() -> {
+			Permit permit = new Permit();
+			return acquire(permit).thenMany(flux)
+					.doOnError(permit::failed)
+					.doFinally(signal -> {
+						if (signal == SignalType.CANCEL) {
+							permit.cancel();
+						}
+						else {
+							permit.release(permit.failure);
+						}
+					});
+		});
+	}
+
+	/**
+	 * Create a proxy that limits every {@link Mono} and {@link Flux} call of the API
+	 * provided, including the calls of the API groups it returns, such as
+	 * {@code CloudFoundryOperations.applications()}.
+	 * @param type the API interface.
+	 * @param target the API to limit.
+	 * @return the limited API.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T wrap(Class<T> type, T target) {
+		Assert.isTrue(type.isInterface(), "type must be an interface");
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				new LimitingInvocationHandler(target, type));
+	}
+
+	private Mono<Void> acquire(Permit permit) {
+		return Mono.create(sink -> {
+			synchronized (this) {
+				if (this.inFlight < (int) this.limit) {
+					this.inFlight++;
+					permit.grant(this.reductions);
+				}
+				else {
+					permit.sink = sink;
+					this.waiting.add(permit);
+				}
+			}
+			if (permit.granted.get()) {
+				sink.success();
+				return;
+			}
+			sink.onCancel(() -> {
+				boolean removed;
+				synchronized (this) {
+					removed = this.waiting.remove(permit);
+				}
+				if (!removed) {
+					// the permit was granted concurrently.
+					permit.cancel();
+				}
+			});
+		});
+	}
+
+	private void release(Permit permit, boolean succeeded, boolean rateLimited) {
+		Permit next;
+		synchronized (this) {
+			if (rateLimited) {
+				if (permit.reductions == this.reductions) {
+					this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+					this.reductions++;
+				}
+			}
+			else if (succeeded && this.inFlight * 2 >= this.limit) {
+				this.limit = Math.min(this.maxLimit, this.limit + 1);
+			}
+			this.inFlight--;
+			if (this.inFlight >= (int) this.limit || this.waiting.isEmpty()) {
+				return;
+			}
+			this.inFlight++;
+			next = this.waiting.poll();
+			next.grant(this.reductions);
+		}
+		next.sink.success();
+	}
+
+	private class Permit {
+
+		private final AtomicBoolean granted = new AtomicBoolean();
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private MonoSink<Void> sink;
+
+		/**
+		 * The number of reductions of the limit when the permit was granted.
+		 */
+		private volatile long reductions;
+
+		private volatile Throwable failure;
+
+		void grant(long reductions) {
+			this.reductions = reductions;
+			this.granted.set(true);
+		}
+
+		void failed(Throwable throwable) {
+			this.failure = throwable;
+		}
+
+		void release(Throwable throwable) {
+			if (this.granted.get() && this.released.compareAndSet(false, true)) {
+				AdaptiveConcurrencyLimiter.this.release(this, throwable == null,
+						throwable != null && TransientFailures.isRateLimited(throwable));
+			}
+		}
+
+		void cancel() {
+			if (this.granted.get() && this.released.compareAndSet(false, true)) {
+				AdaptiveConcurrencyLimiter.this.release(this, false, false);
+			}
+		}
+	}
+
+	private class LimitingInvocationHandler implements InvocationHandler {
+
+		private final Object target;
+
+		private final String apiPackage;
+
+		LimitingInvocationHandler(Object target, Class<?> type) {
+			this.target = target;
+			this.apiPackage = rootPackage(type);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Object result;
+			try {
+				result = method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException exception) {
+				throw exception.getTargetException();
+			}
+			if (result instanceof Mono) {
+				return limit((Mono<?>) result);
+			}
+			if (result instanceof Flux) {
+				return limit((Flux<?>) result);
+			}
+			Class<?> returnType = method.getReturnType();
+			if (result != null && returnType.isInterface() && rootPackage(returnType).equals(this.apiPackage)) {
+				return wrap((Class<Object>) returnType, result);
+			}
+			return result;
+		}
+
+		private String rootPackage(Class<?> type) {
+			String packageName = ClassUtils.getPackageName(type);
+			int end = packageName.indexOf('.', packageName.indexOf('.') + 1);
+			return (end < 0) ? packageName : packageName.substring(0, end);
+		}
+	}
+}
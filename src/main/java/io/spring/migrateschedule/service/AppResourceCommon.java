@@ -23,6 +23,9 @@ import java.net.URISyntaxException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import org.springframework.cloud.deployer.resource.docker.DockerResource;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
 import org.springframework.cloud.deployer.resource.maven.MavenResource;
@@ -35,26 +38,59 @@ import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
+ * Resolves app resources and their versions. The resources resolved and the versions
+ * parsed from URL resources are kept in bounded caches keyed by URI, so a single
+ * instance can be shared by all threads resolving the same few URIs.
+ *
  * @author Christian Tzolov
  * @author Ilayaperumal Gopinathan
  */
 public class AppResourceCommon {
 
+	/**
+	 * The default maximum number of URIs held in each cache.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	/**
+	 * Look for the last dash with a digit after it.
+	 */
+	private static final Pattern VERSION_PATTERN = Pattern.compile("(.*)-(\\d)(.*?)");
+
+	private static final Pattern MAVEN_PREFIX_PATTERN = Pattern.compile("maven:\\/*");
+
+	private static final Pattern DOCKER_PREFIX_PATTERN = Pattern.compile("docker:\\/*");
+
 	/**
 	 * the maven properties to use in case of maven resource
 	 */
-	private MavenProperties mavenProperties;
+	private final MavenProperties mavenProperties;
 
 	/**
 	 * Delegated resource loader for resolving metadata from the metadata URI
 	 */
-	private ResourceLoader metadataResourceLoader;
+	private final ResourceLoader metadataResourceLoader;
 
+	/**
+	 * The resources resolved, keyed by resource URI.
+	 */
+	private final Cache<String, Resource> resources;
+
+	/**
+	 * The versions parsed from URL resources, keyed by resource URI.
+	 */
+	private final Cache<String, String> urlResourceVersions;
 
 	public AppResourceCommon(MavenProperties mavenProperties, ResourceLoader resourceLoader) {
+		this(mavenProperties, resourceLoader, DEFAULT_CACHE_SIZE);
+	}
+
+	public AppResourceCommon(MavenProperties mavenProperties, ResourceLoader resourceLoader, int cacheSize) {
 		Assert.notNull(mavenProperties, "Non null Maven Properties are required!");
 		this.mavenProperties = mavenProperties;
 		this.metadataResourceLoader = resourceLoader;
+		this.resources = Caffeine.newBuilder().maximumSize(cacheSize).build();
+		this.urlResourceVersions = Caffeine.newBuilder().maximumSize(cacheSize).build();
 	}
 
 	/**
@@ -86,7 +122,8 @@ public class AppResourceCommon {
 		try {
 			String uri = dockerResource.getURI().toString().substring("docker:".length());
 			DockerImage dockerImage = DockerImage.fromImageName(uri);
-			String tag = dockerImage.getTag();
+			// an image referenced by digest only is versioned by its digest.
+			String tag = (dockerImage.getTag() != null) ? dockerImage.getTag() : dockerImage.getDigest();
 			Assert.isTrue(StringUtils.hasText(tag), "Could not extract tag from " +
 					dockerResource.getDescription());
 			return tag;
@@ -107,22 +144,24 @@ public class AppResourceCommon {
 	 * @return
 	 */
 	String getUrlResourceVersion(UrlResource urlResource) {
-		Matcher m = getMatcher(urlResource);
+		URI uri = getUri(urlResource);
+		return this.urlResourceVersions.get(uri.toString(), key -> parseUrlResourceVersion(uri));
+	}
+
+	private String parseUrlResourceVersion(URI uri) {
+		Matcher m = getMatcher(uri);
 		return m.group(2) + m.group(3);
 	}
 
-	private Matcher getMatcher(UrlResource urlResource) {
-		String fileNameNoExtension = getFileNameNoExtension(urlResource);
-		// Look for the last dash with a digit after it
-		Pattern pattern = Pattern.compile("(.*)-(\\d)(.*?)");
-		Matcher m = pattern.matcher(fileNameNoExtension);
-		Assert.isTrue(m.matches(), "Could not parse version from " + getUri(urlResource)
+	private Matcher getMatcher(URI uri) {
+		String fileNameNoExtension = getFileNameNoExtension(uri);
+		Matcher m = VERSION_PATTERN.matcher(fileNameNoExtension);
+		Assert.isTrue(m.matches(), "Could not parse version from " + uri
 				+ ", expected format is <artifactId>-<version>.jar");
 		return m;
 	}
 
-	private String getFileNameNoExtension(UrlResource urlResource) {
-		URI uri = getUri(urlResource);
+	private String getFileNameNoExtension(URI uri) {
 		String uriPath = uri.getPath();
 		Assert.isTrue(StringUtils.hasText(uriPath), "URI path doesn't exist");
 		String lastSegment = new File(uriPath).getName();
@@ -150,6 +189,10 @@ public class AppResourceCommon {
 	 */
 	public Resource getResource(String resourceUri) {
 		Assert.isTrue(StringUtils.hasText(resourceUri), "Resource URI must not be empty");
+		return this.resources.get(resourceUri, this::createResource);
+	}
+
+	private Resource createResource(String resourceUri) {
 		Resource result = null;
 		try {
 			String scheme = new URI(resourceUri).getScheme();
@@ -162,11 +205,11 @@ public class AppResourceCommon {
 
 			switch (scheme) {
 				case "maven":
-					String coordinates = resourceUri.replaceFirst("maven:\\/*", "");
+					String coordinates = MAVEN_PREFIX_PATTERN.matcher(resourceUri).replaceFirst("");
 					result = MavenResource.parse(coordinates, mavenProperties);
 					break;
 				case "docker":
-					String dockerUri = resourceUri.replaceFirst("docker:\\/*", "");
+					String dockerUri = DOCKER_PREFIX_PATTERN.matcher(resourceUri).replaceFirst("");
 					result = new DockerResource(dockerUri);
 					break;
 				case "http":
@@ -16,36 +16,43 @@
 
 package io.spring.migrateschedule.service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.pivotal.scheduler.SchedulerClient;
+import io.pivotal.scheduler.v1.jobs.Job;
 import io.pivotal.scheduler.v1.jobs.ListJobsRequest;
-import io.pivotal.scheduler.v1.jobs.ListJobsResponse;
 import org.cloudfoundry.operations.CloudFoundryOperations;
 import org.cloudfoundry.operations.applications.ApplicationEnvironments;
 import org.cloudfoundry.operations.applications.ApplicationSummary;
 import org.cloudfoundry.operations.applications.GetApplicationEnvironmentsRequest;
 import org.cloudfoundry.operations.spaces.SpaceSummary;
 import org.codehaus.plexus.util.cli.CommandLineUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import org.springframework.cloud.dataflow.core.TaskDefinition;
 import org.springframework.cloud.deployer.spi.cloudfoundry.CloudFoundryConnectionProperties;
-import org.springframework.cloud.deployer.spi.core.AppDefinition;
-import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
-import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
 import org.springframework.cloud.deployer.spi.scheduler.SchedulerException;
 import org.springframework.cloud.deployer.spi.scheduler.SchedulerPropertyKeys;
 import org.springframework.util.StringUtils;
 
 public class CFMigrateSchedulerService extends AbstractMigrateService {
 
+	private static final Logger logger = LoggerFactory.getLogger(CFMigrateSchedulerService.class);
+
 	private final static int PCF_PAGE_START_NUM = 1; //First PageNum for PCFScheduler starts at 1.
 
 	private final static String SCHEDULER_SERVICE_ERROR_MESSAGE = "Scheduler Service returned a null response.";
@@ -56,142 +63,222 @@ public class CFMigrateSchedulerService extends AbstractMigrateService {
 
 	private CloudFoundryConnectionProperties properties;
 
+	private ConverterProperties converterProperties;
+
+	/**
+	 * Caches the value of a remote call for the lifetime of the service.
+	 */
+	private static final Duration CACHE_FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+	/**
+	 * The space is resolved once and shared by every scheduler page request. A failed or
+	 * empty lookup is not cached, so that the next request tries again.
+	 */
+	private final Mono<SpaceSummary> space;
+
+	/**
+	 * The application summaries are retrieved once, keyed by application id, and shared
+	 * by every scheduler page. A failed retrieval is not cached.
+	 */
+	private final Mono<Map<String, ApplicationSummary>> applicationSummaries;
+
+	/**
+	 * The total number of scheduler pages, retrieved each time the schedules are listed
+	 * since migrating the schedules removes them from the pages.
+	 */
+	private final Mono<Integer> jobPageCount;
+
+	/**
+	 * The user provided environments retrieved so far, keyed by application name. Many
+	 * schedules share the same task application so each environment is retrieved once,
+	 * bounded like the task definitions. A failed retrieval is not cached.
+	 */
+	private final Cache<String, Mono<Optional<ApplicationEnvironments>>> environments;
+
 	public CFMigrateSchedulerService(CloudFoundryOperations cloudFoundryOperations,
 			SchedulerClient schedulerClient,
 			CloudFoundryConnectionProperties properties, ConverterProperties converterProperties,
-			TaskDefinitionRepository taskDefinitionRepository) {
-		super(converterProperties, taskDefinitionRepository);
+			TaskDefinitionRepository taskDefinitionRepository, MigrationMetrics migrationMetrics) {
+		super(converterProperties, taskDefinitionRepository, migrationMetrics);
 		this.cloudFoundryOperations = cloudFoundryOperations;
 		this.schedulerClient = schedulerClient;
 		this.properties = properties;
+		this.converterProperties = converterProperties;
+		this.space = Mono.defer(() -> getSpace(this.properties.getSpace()))
+				.cache(space -> CACHE_FOREVER, failure -> Duration.ZERO, () -> Duration.ZERO);
+		this.applicationSummaries = Flux.defer(this::requestListApplications)
+				.collectMap(ApplicationSummary::getId)
+				.cache(summaries -> CACHE_FOREVER, failure -> Duration.ZERO, () -> Duration.ZERO);
+		this.jobPageCount = this.space.flatMap(requestSummary -> {
+			return getMigrationMetrics().timeRemoteCall(MigrationMetrics.LIST_JOBS,
+					this.schedulerClient.jobs().list(ListJobsRequest.builder()
+							.spaceId(requestSummary.getId())
+							.detailed(false).build()));
+		}).map(response -> response.getPagination().getTotalPages());
+		this.environments = Caffeine.newBuilder()
+				.maximumSize(converterProperties.getEnvironmentCacheSize())
+				.build();
 	}
 
+	/**
+	 * The page count is retrieved first, the pages are then retrieved with a bounded
+	 * concurrency and emitted in order.
+	 */
 	@Override
-	public List<ConvertScheduleInfo> scheduleInfoList() {
-		List<ConvertScheduleInfo> result = new ArrayList<>();
-		for (int i = PCF_PAGE_START_NUM; i <= getJobPageCount(); i++) {
-			System.out.println("********PAGE COUNT -> " + i);
-			List<ConvertScheduleInfo> scheduleInfoPage = getSchedules(i);
-			if(scheduleInfoPage == null) {
-				throw new SchedulerException(SCHEDULER_SERVICE_ERROR_MESSAGE);
-			}
-			result.addAll(scheduleInfoPage);
-		}
-		return result;
+	public Flux<List<ConvertScheduleInfo>> scheduleInfoPages() {
+		return this.jobPageCount
+				.switchIfEmpty(Mono.error(() -> new SchedulerException(SCHEDULER_SERVICE_ERROR_MESSAGE)))
+				.flatMapMany(pageCount -> Flux.range(PCF_PAGE_START_NUM, pageCount))
+				.flatMapSequential(page -> requestSchedules(page).collectList(),
+						this.converterProperties.getPageFetchConcurrency());
 	}
 
-	public List<ConvertScheduleInfo> getSchedules(int page) {
-		Flux<ApplicationSummary> applicationSummaries = cacheAppSummaries();
-		return this.getSpace(this.properties.getSpace()).flatMap(requestSummary -> {
-			return this.schedulerClient.jobs().list(ListJobsRequest.builder()
-					.spaceId(requestSummary.getId())
-					.page(page)
-					.detailed(true).build());
+	/**
+	 * Retrieve a {@link Flux} of the {@link ConvertScheduleInfo}s for a scheduler page
+	 * using the shared space and application summaries.
+	 * @param page the page to retrieve.
+	 */
+	private Flux<ConvertScheduleInfo> requestSchedules(int page) {
+		return this.space.flatMap(requestSummary -> {
+			return getMigrationMetrics().timeRemoteCall(MigrationMetrics.LIST_JOBS,
+					this.schedulerClient.jobs().list(ListJobsRequest.builder()
+							.spaceId(requestSummary.getId())
+							.page(page)
+							.detailed(true).build()));
 		})
-				.flatMapIterable(jobs -> jobs.getResources())// iterate over the resources returned.
-				.flatMap(job -> {
-					return getApplication(applicationSummaries,
-							job.getApplicationId()) // get the application name for each job.
-							.map(optionalApp -> {
-								ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
-								scheduleInfo.setScheduleProperties(new HashMap<>());
-								scheduleInfo.setScheduleName(job.getName());
-								scheduleInfo.setTaskDefinitionName(optionalApp.getName());
-
-								int locationOfArgs = job.getCommand().indexOf("org.springframework.boot.loader.JarLauncher") + "org.springframework.boot.loader.JarLauncher".length();
-								String commandArgs = job.getCommand().substring(locationOfArgs);
-								if (StringUtils.hasText(commandArgs)) {
-									try {
-										scheduleInfo.setCommandLineArgs(Arrays.asList(CommandLineUtils.translateCommandline(commandArgs)));
-									}
-									catch (Exception e) {
-										throw new IllegalArgumentException(e);
-									}
-								}
-								if (job.getJobSchedules() != null) {
-									scheduleInfo.getScheduleProperties().put(SchedulerPropertyKeys.CRON_EXPRESSION,
-											job.getJobSchedules().get(0).getExpression());
-								}
-								else {
-									System.out.println(String.format("Job %s does not have an associated schedule", job.getName()));
-								}
-								return scheduleInfo;
-							});
-				}).collectList().block();
+				.doOnNext(response -> getMigrationMetrics().pageFetched())
+				.zipWith(this.applicationSummaries)
+				.flatMapIterable(jobsAndApplications -> {
+					List<Job> jobs = jobsAndApplications.getT1().getResources();
+					Map<String, ApplicationSummary> applications = jobsAndApplications.getT2();
+					List<ConvertScheduleInfo> result = new ArrayList<>(jobs.size());
+					for (Job job : jobs) {
+						// get the application name for each job.
+						ApplicationSummary application = applications.get(job.getApplicationId());
+						if (application != null) {
+							result.add(toScheduleInfo(job, application));
+						}
+					}
+					return result;
+				});
 	}
 
-	@Override
-	public ConvertScheduleInfo enrichScheduleMetadata(ConvertScheduleInfo scheduleInfo) {
-		ApplicationEnvironments environment = this.cloudFoundryOperations.applications().
-				getEnvironments(GetApplicationEnvironmentsRequest.builder().
-						name(scheduleInfo.getTaskDefinitionName()).
-						build()).
-				block();
-		if (environment != null) {
-			for (Map.Entry<String, Object> var : environment.getUserProvided().entrySet()) {
-				scheduleInfo.getScheduleProperties().put(var.getKey(), (String) var.getValue());
-			}
+	private ConvertScheduleInfo toScheduleInfo(Job job, ApplicationSummary application) {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleProperties(new HashMap<>());
+		scheduleInfo.setScheduleName(job.getName());
+		scheduleInfo.setTaskDefinitionName(application.getName());
+
+		List<String> commandLineArgs = parseCommandLineArgs(job.getCommand());
+		if (commandLineArgs != null) {
+			scheduleInfo.setCommandLineArgs(commandLineArgs);
+		}
+		if (job.getJobSchedules() != null) {
+			scheduleInfo.getScheduleProperties().put(SchedulerPropertyKeys.CRON_EXPRESSION,
+					job.getJobSchedules().get(0).getExpression());
+		}
+		else {
+			logger.warn(String.format("Job %s does not have an associated schedule", job.getName()));
+		}
+		return scheduleInfo;
+	}
+
+	/**
+	 * Extract the arguments that follow the {@code JarLauncher} of a job's command.
+	 * @param command the command of the job.
+	 * @return the arguments or null if the command has no arguments.
+	 */
+	static List<String> parseCommandLineArgs(String command) {
+		int locationOfArgs = command.indexOf("org.springframework.boot.loader.JarLauncher") + "org.springframework.boot.loader.JarLauncher".length();
+		String commandArgs = command.substring(locationOfArgs);
+		if (!StringUtils.hasText(commandArgs)) {
+			return null;
 		}
-		List<String> revisedCommandLineArgs = tagCommandLineArgs(scheduleInfo.getCommandLineArgs());
-		revisedCommandLineArgs.add("--spring.cloud.scheduler.task.launcher.taskName=" + scheduleInfo.getTaskDefinitionName());
-		scheduleInfo.setCommandLineArgs(revisedCommandLineArgs);
-		Map<String, String> appProperties = null;
 		try {
-			appProperties = getSpringAppProperties(scheduleInfo.getScheduleProperties());
+			return Arrays.asList(CommandLineUtils.translateCommandline(commandArgs));
 		}
-		catch (Exception exception) {
-			throw new IllegalArgumentException("Unable to parse SPRING_APPLICATION_JSON from USER VARIABLES", exception);
+		catch (Exception e) {
+			throw new IllegalArgumentException(e);
 		}
-		TaskDefinition taskDefinition = findTaskDefinitionByName(appProperties.get("spring.cloud.task.name"));
-		if (appProperties.size() > 0 && taskDefinition == null) {
-			throw new IllegalStateException(String.format("The schedule %s contains " +
-							"properties but the task definition %s does not exist and thus can't be migrated",
-					scheduleInfo.getScheduleName(), scheduleInfo.getTaskDefinitionName()));
+	}
+
+	@Override
+	public void prefetchScheduleMetadata(List<ConvertScheduleInfo> scheduleInfos) {
+		Set<String> appNames = new LinkedHashSet<>();
+		for (ConvertScheduleInfo scheduleInfo : scheduleInfos) {
+			String appName = scheduleInfo.getTaskDefinitionName();
+			if (appName != null && this.environments.getIfPresent(appName) == null) {
+				appNames.add(appName);
+			}
 		}
-		appProperties = tagProperties(taskDefinition.getRegisteredAppName(), appProperties, APP_PREFIX);
-		appProperties = addSchedulerAppProps(appProperties);
-		scheduleInfo.setAppProperties(appProperties);
-		return scheduleInfo;
+		Flux.fromIterable(appNames)
+				.flatMap(this::environment, this.converterProperties.getEnvironmentFetchConcurrency())
+				.blockLast();
 	}
 
 	@Override
-	public void migrateSchedule(Scheduler scheduler, ConvertScheduleInfo scheduleInfo) {
-		String scheduleName = scheduleInfo.getScheduleName() + "-" + getSchedulePrefix(scheduleInfo.getTaskDefinitionName());
-		AppDefinition appDefinition = new AppDefinition(scheduleName, scheduleInfo.getAppProperties());
-		Map<String, String> schedulerProperties = extractAndQualifySchedulerProperties(scheduleInfo.getScheduleProperties());
-		ScheduleRequest scheduleRequest = new ScheduleRequest(appDefinition, schedulerProperties, new HashMap<>(), scheduleInfo.getCommandLineArgs(), scheduleName, getTaskLauncherResource());
-		scheduler.schedule(scheduleRequest);
-		scheduler.unschedule(scheduleInfo.getScheduleName());
+	public ConvertScheduleInfo enrichScheduleMetadata(ConvertScheduleInfo scheduleInfo) {
+		return enrichScheduleMetadata(scheduleInfo, getScheduleEnvironment(scheduleInfo));
 	}
 
 	/**
-	 * Retrieves the number of pages that can be returned when retrieving a list of jobs.
-	 * @return an int containing the number of available pages.
+	 * Retrieve the environment of the schedule from the Cloud Controller without blocking,
+	 * the task definition is then looked up on a bounded elastic thread.
 	 */
-	private int getJobPageCount() {
-		ListJobsResponse response = this.getSpace(this.properties.getSpace()).flatMap(requestSummary -> {
-			return this.schedulerClient.jobs().list(ListJobsRequest.builder()
-					.spaceId(requestSummary.getId())
-					.detailed(false).build());
-		}).block();
-		if(response == null) {
-			throw new SchedulerException(SCHEDULER_SERVICE_ERROR_MESSAGE);
-		}
-		return response.getPagination().getTotalPages();
+	@Override
+	public Mono<ConvertScheduleInfo> requestEnrichedScheduleInfo(ConvertScheduleInfo scheduleInfo) {
+		return environment(scheduleInfo.getTaskDefinitionName())
+				.publishOn(Schedulers.boundedElastic())
+				.map(requested -> enrichScheduleMetadata(scheduleInfo, toScheduleEnvironment(requested.orElse(null))));
 	}
 
-	private Map<String, String> getSpringAppProperties(Map<String, String> properties) throws Exception {
-		Map<String, String> result;
-		if(properties.containsKey("SPRING_APPLICATION_JSON")) {
-			result = new ObjectMapper()
-					.readValue(properties.get("SPRING_APPLICATION_JSON"), Map.class);
-		}
-		else {
-			result = new HashMap<>();
+	/**
+	 * Retrieve the user provided environment of the application launched by the schedule.
+	 */
+	@Override
+	public Map<String, String> getScheduleEnvironment(ConvertScheduleInfo scheduleInfo) {
+		return toScheduleEnvironment(getEnvironment(scheduleInfo.getTaskDefinitionName()));
+	}
+
+	private static Map<String, String> toScheduleEnvironment(ApplicationEnvironments environment) {
+		Map<String, String> result = new LinkedHashMap<>();
+		if (environment != null) {
+			for (Map.Entry<String, Object> var : environment.getUserProvided().entrySet()) {
+				result.put(var.getKey(), (String) var.getValue());
+			}
 		}
 		return result;
 	}
 
+	/**
+	 * Retrieve the user provided environment for the application, using the environments
+	 * already retrieved when available.
+	 * @param appName the name of the application.
+	 * @return the environment of the application or null if none exists.
+	 */
+	private ApplicationEnvironments getEnvironment(String appName) {
+		return environment(appName).block().orElse(null);
+	}
+
+	/**
+	 * The user provided environment of the application, requested once and shared by
+	 * every schedule launching the application.
+	 */
+	private Mono<Optional<ApplicationEnvironments>> environment(String appName) {
+		return this.environments.get(appName, name -> Mono.defer(() -> requestEnvironment(name))
+				.map(Optional::of)
+				.defaultIfEmpty(Optional.empty())
+				.cache(environment -> CACHE_FOREVER, failure -> Duration.ZERO, () -> Duration.ZERO));
+	}
+
+	private Mono<ApplicationEnvironments> requestEnvironment(String appName) {
+		return getMigrationMetrics().timeRemoteCall(MigrationMetrics.GET_ENVIRONMENTS,
+				this.cloudFoundryOperations.applications().
+						getEnvironments(GetApplicationEnvironmentsRequest.builder().
+								name(appName).
+								build()));
+	}
+
 	/**
 	 * Retrieve a {@link Mono} containing a {@link SpaceSummary} for the specified name.
 	 *
@@ -200,7 +287,6 @@ public class CFMigrateSchedulerService extends AbstractMigrateService {
 	 */
 	private Mono<SpaceSummary> getSpace(String spaceName) {
 		return requestSpaces()
-				.cache() //cache results from first call.
 				.filter(space -> spaceName.equals(space.getName()))
 				.singleOrEmpty()
 				.cast(SpaceSummary.class);
@@ -216,14 +302,6 @@ public class CFMigrateSchedulerService extends AbstractMigrateService {
 				.list();
 	}
 
-	/**
-	 * Retrieve a cached {@link Flux} of {@link ApplicationSummary}s.
-	 */
-	private Flux<ApplicationSummary> cacheAppSummaries() {
-		return requestListApplications()
-				.cache(); //cache results from first call.  No need to re-retrieve each time.
-	}
-
 	/**
 	 * Retrieve a  {@link Flux} of {@link ApplicationSummary}s.
 	 */
@@ -231,17 +309,4 @@ public class CFMigrateSchedulerService extends AbstractMigrateService {
 		return this.cloudFoundryOperations.applications()
 				.list();
 	}
-
-	/**
-	 * Retrieve a {@link Mono} containing the {@link ApplicationSummary} associated with the appId.
-	 *
-	 * @param applicationSummaries {@link Flux} of {@link ApplicationSummary}s to filter.
-	 * @param appId                the id of the {@link ApplicationSummary} to search.
-	 */
-	private Mono<ApplicationSummary> getApplication(Flux<ApplicationSummary> applicationSummaries,
-			String appId) {
-		return applicationSummaries
-				.filter(application -> appId.equals(application.getId()))
-				.singleOrEmpty();
-	}
 }
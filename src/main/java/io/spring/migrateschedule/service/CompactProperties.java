@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable map of properties backed by a sorted array of keys and an array of
+ * values, looked up by binary search. It holds no entry or table objects, so that the
+ * properties of a large number of schedules can be kept in memory. The keys are
+ * deduplicated when the map is created, the same keys are repeated by most schedules.
+ */
+public final class CompactProperties extends AbstractMap<String, String> {
+
+	private static final String[] NO_STRINGS = new String[0];
+
+	private static final CompactProperties EMPTY = new CompactProperties(NO_STRINGS, NO_STRINGS);
+
+	private final String[] keys;
+
+	private final String[] values;
+
+	private CompactProperties(String[] keys, String[] values) {
+		this.keys = keys;
+		this.values = values;
+	}
+
+	/**
+	 * @return an empty map.
+	 */
+	public static CompactProperties empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * @param properties the properties to copy, null keys are not supported.
+	 * @param deduplicator the deduplicator of the keys.
+	 * @return an immutable copy of the properties.
+	 */
+	public static CompactProperties of(Map<String, String> properties, UnaryOperator<String> deduplicator) {
+		if (properties == null || properties.isEmpty()) {
+			return EMPTY;
+		}
+		if (properties instanceof CompactProperties) {
+			return (CompactProperties) properties;
+		}
+		String[] keys = new String[properties.size()];
+		int i = 0;
+		for (String key : properties.keySet()) {
+			keys[i++] = deduplicator.apply(key);
+		}
+		Arrays.sort(keys);
+		String[] values = new String[keys.length];
+		for (i = 0; i < keys.length; i++) {
+			values[i] = properties.get(keys[i]);
+		}
+		return new CompactProperties(keys, values);
+	}
+
+	/**
+	 * @return a deduplicator that keeps one instance of each string it is given, for
+	 * the lifetime of the deduplicator.
+	 */
+	public static UnaryOperator<String> deduplicator() {
+		Map<String, String> strings = new ConcurrentHashMap<>();
+		return string -> {
+			String result = strings.putIfAbsent(string, string);
+			return (result != null) ? result : string;
+		};
+	}
+
+	@Override
+	public int size() {
+		return this.keys.length;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public String get(Object key) {
+		int index = indexOf(key);
+		return (index >= 0) ? this.values[index] : null;
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		return new AbstractSet<Entry<String, String>>() {
+
+			@Override
+			public int size() {
+				return keys.length;
+			}
+
+			@Override
+			public Iterator<Entry<String, String>> iterator() {
+				return new Iterator<Entry<String, String>>() {
+
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						return this.index < keys.length;
+					}
+
+					@Override
+					public Entry<String, String> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						int current = this.index++;
+						return new SimpleImmutableEntry<>(keys[current], values[current]);
+					}
+				};
+			}
+		};
+	}
+
+	private int indexOf(Object key) {
+		return (key instanceof String) ? Arrays.binarySearch(this.keys, key) : -1;
+	}
+}
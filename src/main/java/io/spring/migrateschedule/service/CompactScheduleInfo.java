@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable, compact form of a {@link ConvertScheduleInfo} for holding the schedules
+ * of a whole migration in memory. The properties are held in {@link CompactProperties}
+ * with deduplicated keys and the command line arguments in an array. A schedule is
+ * materialized as a {@link ConvertScheduleInfo} when it is migrated, and is enriched
+ * in that copy, which is only held for the chunk being migrated.
+ */
+public final class CompactScheduleInfo {
+
+	private static final String[] NO_ARGS = new String[0];
+
+	private final String scheduleName;
+
+	private final String taskDefinitionName;
+
+	private final String registeredAppName;
+
+	private final String migratedScheduleName;
+
+	private final CompactProperties scheduleProperties;
+
+	private final CompactProperties appProperties;
+
+	private final String[] commandLineArgs;
+
+	private CompactScheduleInfo(Builder builder) {
+		this.scheduleName = builder.scheduleName;
+		this.taskDefinitionName = builder.taskDefinitionName;
+		this.registeredAppName = builder.registeredAppName;
+		this.migratedScheduleName = builder.migratedScheduleName;
+		this.scheduleProperties = builder.scheduleProperties;
+		this.appProperties = builder.appProperties;
+		this.commandLineArgs = builder.commandLineArgs;
+	}
+
+	/**
+	 * @param deduplicator the deduplicator of the property keys.
+	 * @return a builder of a schedule.
+	 */
+	public static Builder builder(UnaryOperator<String> deduplicator) {
+		return new Builder(deduplicator);
+	}
+
+	/**
+	 * @param scheduleInfo the schedule to copy.
+	 * @param deduplicator the deduplicator of the property keys.
+	 * @return a compact copy of the schedule.
+	 */
+	public static CompactScheduleInfo from(ConvertScheduleInfo scheduleInfo, UnaryOperator<String> deduplicator) {
+		return builder(deduplicator)
+				.scheduleName(scheduleInfo.getScheduleName())
+				.taskDefinitionName(scheduleInfo.getTaskDefinitionName())
+				.registeredAppName(scheduleInfo.getRegisteredAppName())
+				.migratedScheduleName(scheduleInfo.getMigratedScheduleName())
+				.scheduleProperties(scheduleInfo.getScheduleProperties())
+				.appProperties(scheduleInfo.getAppProperties())
+				.commandLineArgs(scheduleInfo.getCommandLineArgs())
+				.build();
+	}
+
+	/**
+	 * @return a mutable copy of the schedule to migrate.
+	 */
+	public ConvertScheduleInfo toScheduleInfo() {
+		ConvertScheduleInfo result = new ConvertScheduleInfo();
+		result.setScheduleName(this.scheduleName);
+		result.setTaskDefinitionName(this.taskDefinitionName);
+		result.setRegisteredAppName(this.registeredAppName);
+		result.setMigratedScheduleName(this.migratedScheduleName);
+		result.setScheduleProperties(new ScheduleProperties(this.scheduleProperties));
+		result.setAppProperties(new HashMap<>(this.appProperties));
+		result.setCommandLineArgs(new ArrayList<>(Arrays.asList(this.commandLineArgs)));
+		return result;
+	}
+
+	public String getScheduleName() {
+		return scheduleName;
+	}
+
+	public String getTaskDefinitionName() {
+		return taskDefinitionName;
+	}
+
+	public String getRegisteredAppName() {
+		return registeredAppName;
+	}
+
+	public String getMigratedScheduleName() {
+		return migratedScheduleName;
+	}
+
+	public Map<String, String> getScheduleProperties() {
+		return scheduleProperties;
+	}
+
+	public Map<String, String> getAppProperties() {
+		return appProperties;
+	}
+
+	public List<String> getCommandLineArgs() {
+		return Collections.unmodifiableList(Arrays.asList(commandLineArgs));
+	}
+
+	/**
+	 * Builds a {@link CompactScheduleInfo}, the properties are compacted as they are
+	 * provided.
+	 */
+	public static final class Builder {
+
+		private final UnaryOperator<String> deduplicator;
+
+		private String scheduleName;
+
+		private String taskDefinitionName;
+
+		private String registeredAppName;
+
+		private String migratedScheduleName;
+
+		private CompactProperties scheduleProperties = CompactProperties.empty();
+
+		private CompactProperties appProperties = CompactProperties.empty();
+
+		private String[] commandLineArgs = NO_ARGS;
+
+		private Builder(UnaryOperator<String> deduplicator) {
+			this.deduplicator = deduplicator;
+		}
+
+		public Builder scheduleName(String scheduleName) {
+			this.scheduleName = scheduleName;
+			return this;
+		}
+
+		public Builder taskDefinitionName(String taskDefinitionName) {
+			this.taskDefinitionName = taskDefinitionName;
+			return this;
+		}
+
+		public Builder registeredAppName(String registeredAppName) {
+			this.registeredAppName = registeredAppName;
+			return this;
+		}
+
+		public Builder migratedScheduleName(String migratedScheduleName) {
+			this.migratedScheduleName = migratedScheduleName;
+			return this;
+		}
+
+		public Builder scheduleProperties(Map<String, String> scheduleProperties) {
+			this.scheduleProperties = CompactProperties.of(scheduleProperties, this.deduplicator);
+			return this;
+		}
+
+		public Builder appProperties(Map<String, String> appProperties) {
+			this.appProperties = CompactProperties.of(appProperties, this.deduplicator);
+			return this;
+		}
+
+		public Builder commandLineArgs(List<String> commandLineArgs) {
+			this.commandLineArgs = (commandLineArgs == null || commandLineArgs.isEmpty()) ?
+					NO_ARGS : commandLineArgs.toArray(NO_ARGS);
+			return this;
+		}
+
+		public CompactScheduleInfo build() {
+			return new CompactScheduleInfo(this);
+		}
+	}
+}
@@ -29,8 +29,37 @@ public class ConvertScheduleInfo extends ScheduleInfo {
 
 	private String registeredAppName;
 
+	private String migratedScheduleName;
+
 	private Map<String, String> appProperties = new HashMap<>();
 
+	private boolean migratedScheduleCreated;
+
+	private final long[] phaseTimes = new long[MigrationPhase.values().length];
+
+	public ConvertScheduleInfo() {
+		super.setScheduleProperties(new ScheduleProperties());
+	}
+
+	/**
+	 * @return the properties of the schedule indexed by namespace.
+	 */
+	@Override
+	public ScheduleProperties getScheduleProperties() {
+		return (ScheduleProperties) super.getScheduleProperties();
+	}
+
+	/**
+	 * Establish the properties of the schedule, copied into {@link ScheduleProperties}
+	 * unless they already are.
+	 * @param scheduleProperties the properties of the schedule.
+	 */
+	@Override
+	public void setScheduleProperties(Map<String, String> scheduleProperties) {
+		super.setScheduleProperties((scheduleProperties == null || scheduleProperties instanceof ScheduleProperties) ?
+				scheduleProperties : new ScheduleProperties(scheduleProperties));
+	}
+
 	public List<String> getCommandLineArgs() {
 		return commandLineArgs;
 	}
@@ -47,6 +76,30 @@ public class ConvertScheduleInfo extends ScheduleInfo {
 		this.registeredAppName = registeredAppName;
 	}
 
+	/**
+	 * @return the name of the schedule that replaces this schedule, or null if it is
+	 * derived from the schedule prefix when the schedule is migrated.
+	 */
+	public String getMigratedScheduleName() {
+		return migratedScheduleName;
+	}
+
+	public void setMigratedScheduleName(String migratedScheduleName) {
+		this.migratedScheduleName = migratedScheduleName;
+	}
+
+	/**
+	 * @return true if the schedule that replaces this schedule has been created, so
+	 * that only this schedule remains to be removed when its migration is retried.
+	 */
+	public boolean isMigratedScheduleCreated() {
+		return migratedScheduleCreated;
+	}
+
+	public void setMigratedScheduleCreated(boolean migratedScheduleCreated) {
+		this.migratedScheduleCreated = migratedScheduleCreated;
+	}
+
 	public Map<String, String> getAppProperties() {
 		return appProperties;
 	}
@@ -54,4 +107,22 @@ public class ConvertScheduleInfo extends ScheduleInfo {
 	public void setAppProperties(Map<String, String> appProperties) {
 		this.appProperties = appProperties;
 	}
+
+	/**
+	 * Add to the time spent migrating the schedule in a phase. The times of retried
+	 * attempts are added up.
+	 * @param phase the migration phase.
+	 * @param nanos the time spent in nanoseconds.
+	 */
+	public void addPhaseTime(MigrationPhase phase, long nanos) {
+		this.phaseTimes[phase.ordinal()] += nanos;
+	}
+
+	/**
+	 * @param phase the migration phase.
+	 * @return the time spent in the phase in nanoseconds.
+	 */
+	public long getPhaseTime(MigrationPhase phase) {
+		return this.phaseTimes[phase.ordinal()];
+	}
 }
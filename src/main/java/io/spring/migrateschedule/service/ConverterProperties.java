@@ -19,6 +19,11 @@ package io.spring.migrateschedule.service;
 public class ConverterProperties {
 	private String schedulerTaskLauncherUrl = "maven://org.springframework.cloud:spring-cloud-dataflow-scheduler-task-launcher:2.3.0.BUILD-SNAPSHOT";
 
+	/**
+	 * Download the task launcher into the local maven repository before the migration starts.
+	 */
+	private boolean preDownloadTaskLauncher = false;
+
 	/**
 	 * The prefix for the updated schedules.
 	 */
@@ -37,6 +42,169 @@ public class ConverterProperties {
 	 */
 	private int scheduleTimeoutInSeconds = 30;
 
+	/**
+	 * The number of partitions used to migrate schedules concurrently. Each partition
+	 * migrates a contiguous range of schedule names on its own thread.
+	 */
+	private int concurrency = 1;
+
+	/**
+	 * The maximum number of schedule pages retrieved concurrently when listing all schedules.
+	 */
+	private int pageFetchConcurrency = 4;
+
+	/**
+	 * The maximum number of application environments retrieved concurrently for a chunk of schedules.
+	 */
+	private int environmentFetchConcurrency = 4;
+
+	/**
+	 * The maximum number of application environments held when migrating Cloud Foundry schedules.
+	 */
+	private long environmentCacheSize = 1000;
+
+	/**
+	 * The number of schedules of a chunk that are created and removed concurrently.
+	 * When set to 1 the schedules of a chunk are migrated one after the other.
+	 */
+	private int writerConcurrency = 1;
+
+	/**
+	 * The maximum number of CronJobs retrieved per page from Kubernetes.
+	 */
+	private int kubernetesPageSize = 100;
+
+	/**
+	 * The maximum number of task definitions held in the task definition cache.
+	 */
+	private long taskDefinitionCacheSize = 1000;
+
+	/**
+	 * The number of seconds a task definition remains in the task definition cache.
+	 */
+	private long taskDefinitionCacheExpirationInSeconds = 600;
+
+	/**
+	 * Read all task definitions once at the first lookup instead of querying each task definition by name.
+	 */
+	private boolean preloadTaskDefinitions = false;
+
+	/**
+	 * Whether the schedules are migrated, written to a migration plan, migrated from a
+	 * migration plan or exported to a snapshot.
+	 */
+	private MigrationMode mode = MigrationMode.MIGRATE;
+
+	/**
+	 * Migrate each schedule on its own virtual thread instead of a pool of platform
+	 * threads, requires Java 21 or later.
+	 */
+	private boolean virtualThreads = false;
+
+	/**
+	 * The maximum number of schedules migrated at once on virtual threads.
+	 */
+	private int virtualThreadMaxConcurrency = 1000;
+
+	/**
+	 * Whether the schedules are migrated by the Spring Batch chunk oriented step or by
+	 * the reactive pipeline.
+	 */
+	private MigrationEngine engine = MigrationEngine.BATCH;
+
+	/**
+	 * The number of schedules the reactive pipeline enriches concurrently.
+	 */
+	private int reactiveEnrichConcurrency = 64;
+
+	/**
+	 * The number of schedules the reactive pipeline creates concurrently.
+	 */
+	private int reactiveScheduleConcurrency = 16;
+
+	/**
+	 * The number of schedules the reactive pipeline removes concurrently.
+	 */
+	private int reactiveUnscheduleConcurrency = 16;
+
+	/**
+	 * The number of schedules each stage of the reactive pipeline requests ahead from
+	 * the previous stage, and the tasklet requests ahead from the pipeline.
+	 */
+	private int reactivePrefetch = 32;
+
+	/**
+	 * The number of schedules the reactive pipeline completes between two checkpoints
+	 * recorded in the batch repository.
+	 */
+	private int reactiveCheckpointInterval = 100;
+
+	/**
+	 * The JSON Lines file the migration plan is written to and executed from.
+	 */
+	private String planFile = "migration-plan.jsonl";
+
+	/**
+	 * The snapshot of the schedules written by the EXPORT_SNAPSHOT mode and migrated from
+	 * with the snapshot profile, gzip compressed when the file name ends with .gz.
+	 */
+	private String snapshotFile = "schedules-snapshot.jsonl.gz";
+
+	/**
+	 * The number of schedules of each page read from the snapshot.
+	 */
+	private int snapshotPageSize = 100;
+
+	/**
+	 * Restart the last migration, instead of starting a new one, if it failed or was
+	 * interrupted.
+	 */
+	private boolean resumeMigration = true;
+
+	/**
+	 * The maximum number of attempts to migrate a schedule that fails with a transient
+	 * failure, such as a timeout, a rate limit or a server error.
+	 */
+	private int retryLimit = 3;
+
+	/**
+	 * The number of milliseconds to wait before the first retry of a schedule.
+	 */
+	private long retryInitialIntervalInMillis = 1000;
+
+	/**
+	 * The maximum number of milliseconds to wait before retrying a schedule.
+	 */
+	private long retryMaxIntervalInMillis = 30000;
+
+	/**
+	 * The number of schedules that can fail and be skipped before the migration fails.
+	 */
+	private int skipLimit = 0;
+
+	/**
+	 * The CSV file the skipped schedules are recorded in.
+	 */
+	private String skippedScheduleReportFile = "skipped-schedules.csv";
+
+	/**
+	 * The report the outcome and the time spent in each phase of every schedule are
+	 * recorded in, as CSV or as JSON lines when the file name ends with .jsonl. No
+	 * report is written when empty.
+	 */
+	private String migrationReportFile = "migration-report.csv";
+
+	/**
+	 * The initial number of concurrent calls to each Cloud Foundry API. The limit grows
+	 * while the calls succeed and is reduced when the API is rate limiting the calls.
+	 */
+	private int cfApiConcurrency = 8;
+
+	/**
+	 * The maximum number of concurrent calls to each Cloud Foundry API.
+	 */
+	private int cfApiMaxConcurrency = 64;
+
 	public String getSchedulerTaskLauncherUrl() {
 		return schedulerTaskLauncherUrl;
 	}
@@ -45,6 +213,14 @@ public class ConverterProperties {
 		this.schedulerTaskLauncherUrl = schedulerTaskLauncherUrl;
 	}
 
+	public boolean isPreDownloadTaskLauncher() {
+		return preDownloadTaskLauncher;
+	}
+
+	public void setPreDownloadTaskLauncher(boolean preDownloadTaskLauncher) {
+		this.preDownloadTaskLauncher = preDownloadTaskLauncher;
+	}
+
 	public String getSchedulerPrefix() {
 		return schedulerPrefix;
 	}
@@ -76,4 +252,244 @@ public class ConverterProperties {
 	public void setScheduleTimeoutInSeconds(int scheduleTimeoutInSeconds) {
 		this.scheduleTimeoutInSeconds = scheduleTimeoutInSeconds;
 	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	public int getPageFetchConcurrency() {
+		return pageFetchConcurrency;
+	}
+
+	public void setPageFetchConcurrency(int pageFetchConcurrency) {
+		this.pageFetchConcurrency = pageFetchConcurrency;
+	}
+
+	public int getEnvironmentFetchConcurrency() {
+		return environmentFetchConcurrency;
+	}
+
+	public void setEnvironmentFetchConcurrency(int environmentFetchConcurrency) {
+		this.environmentFetchConcurrency = environmentFetchConcurrency;
+	}
+
+	public long getEnvironmentCacheSize() {
+		return environmentCacheSize;
+	}
+
+	public void setEnvironmentCacheSize(long environmentCacheSize) {
+		this.environmentCacheSize = environmentCacheSize;
+	}
+
+	public int getWriterConcurrency() {
+		return writerConcurrency;
+	}
+
+	public void setWriterConcurrency(int writerConcurrency) {
+		this.writerConcurrency = writerConcurrency;
+	}
+
+	public int getKubernetesPageSize() {
+		return kubernetesPageSize;
+	}
+
+	public void setKubernetesPageSize(int kubernetesPageSize) {
+		this.kubernetesPageSize = kubernetesPageSize;
+	}
+
+	public long getTaskDefinitionCacheSize() {
+		return taskDefinitionCacheSize;
+	}
+
+	public void setTaskDefinitionCacheSize(long taskDefinitionCacheSize) {
+		this.taskDefinitionCacheSize = taskDefinitionCacheSize;
+	}
+
+	public long getTaskDefinitionCacheExpirationInSeconds() {
+		return taskDefinitionCacheExpirationInSeconds;
+	}
+
+	public void setTaskDefinitionCacheExpirationInSeconds(long taskDefinitionCacheExpirationInSeconds) {
+		this.taskDefinitionCacheExpirationInSeconds = taskDefinitionCacheExpirationInSeconds;
+	}
+
+	public boolean isPreloadTaskDefinitions() {
+		return preloadTaskDefinitions;
+	}
+
+	public void setPreloadTaskDefinitions(boolean preloadTaskDefinitions) {
+		this.preloadTaskDefinitions = preloadTaskDefinitions;
+	}
+
+	public MigrationMode getMode() {
+		return mode;
+	}
+
+	public void setMode(MigrationMode mode) {
+		this.mode = mode;
+	}
+
+	public String getPlanFile() {
+		return planFile;
+	}
+
+	public void setPlanFile(String planFile) {
+		this.planFile = planFile;
+	}
+
+	public boolean isResumeMigration() {
+		return resumeMigration;
+	}
+
+	public void setResumeMigration(boolean resumeMigration) {
+		this.resumeMigration = resumeMigration;
+	}
+
+	public int getRetryLimit() {
+		return retryLimit;
+	}
+
+	public void setRetryLimit(int retryLimit) {
+		this.retryLimit = retryLimit;
+	}
+
+	public long getRetryInitialIntervalInMillis() {
+		return retryInitialIntervalInMillis;
+	}
+
+	public void setRetryInitialIntervalInMillis(long retryInitialIntervalInMillis) {
+		this.retryInitialIntervalInMillis = retryInitialIntervalInMillis;
+	}
+
+	public long getRetryMaxIntervalInMillis() {
+		return retryMaxIntervalInMillis;
+	}
+
+	public void setRetryMaxIntervalInMillis(long retryMaxIntervalInMillis) {
+		this.retryMaxIntervalInMillis = retryMaxIntervalInMillis;
+	}
+
+	public int getSkipLimit() {
+		return skipLimit;
+	}
+
+	public void setSkipLimit(int skipLimit) {
+		this.skipLimit = skipLimit;
+	}
+
+	public String getSkippedScheduleReportFile() {
+		return skippedScheduleReportFile;
+	}
+
+	public void setSkippedScheduleReportFile(String skippedScheduleReportFile) {
+		this.skippedScheduleReportFile = skippedScheduleReportFile;
+	}
+
+	public int getCfApiConcurrency() {
+		return cfApiConcurrency;
+	}
+
+	public void setCfApiConcurrency(int cfApiConcurrency) {
+		this.cfApiConcurrency = cfApiConcurrency;
+	}
+
+	public int getCfApiMaxConcurrency() {
+		return cfApiMaxConcurrency;
+	}
+
+	public void setCfApiMaxConcurrency(int cfApiMaxConcurrency) {
+		this.cfApiMaxConcurrency = cfApiMaxConcurrency;
+	}
+
+	public String getMigrationReportFile() {
+		return migrationReportFile;
+	}
+
+	public void setMigrationReportFile(String migrationReportFile) {
+		this.migrationReportFile = migrationReportFile;
+	}
+
+	public String getSnapshotFile() {
+		return snapshotFile;
+	}
+
+	public void setSnapshotFile(String snapshotFile) {
+		this.snapshotFile = snapshotFile;
+	}
+
+	public int getSnapshotPageSize() {
+		return snapshotPageSize;
+	}
+
+	public void setSnapshotPageSize(int snapshotPageSize) {
+		this.snapshotPageSize = snapshotPageSize;
+	}
+
+	public MigrationEngine getEngine() {
+		return engine;
+	}
+
+	public void setEngine(MigrationEngine engine) {
+		this.engine = engine;
+	}
+
+	public int getReactiveEnrichConcurrency() {
+		return reactiveEnrichConcurrency;
+	}
+
+	public void setReactiveEnrichConcurrency(int reactiveEnrichConcurrency) {
+		this.reactiveEnrichConcurrency = reactiveEnrichConcurrency;
+	}
+
+	public int getReactiveScheduleConcurrency() {
+		return reactiveScheduleConcurrency;
+	}
+
+	public void setReactiveScheduleConcurrency(int reactiveScheduleConcurrency) {
+		this.reactiveScheduleConcurrency = reactiveScheduleConcurrency;
+	}
+
+	public int getReactiveUnscheduleConcurrency() {
+		return reactiveUnscheduleConcurrency;
+	}
+
+	public void setReactiveUnscheduleConcurrency(int reactiveUnscheduleConcurrency) {
+		this.reactiveUnscheduleConcurrency = reactiveUnscheduleConcurrency;
+	}
+
+	public int getReactivePrefetch() {
+		return reactivePrefetch;
+	}
+
+	public void setReactivePrefetch(int reactivePrefetch) {
+		this.reactivePrefetch = reactivePrefetch;
+	}
+
+	public int getReactiveCheckpointInterval() {
+		return reactiveCheckpointInterval;
+	}
+
+	public void setReactiveCheckpointInterval(int reactiveCheckpointInterval) {
+		this.reactiveCheckpointInterval = reactiveCheckpointInterval;
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	public int getVirtualThreadMaxConcurrency() {
+		return virtualThreadMaxConcurrency;
+	}
+
+	public void setVirtualThreadMaxConcurrency(int virtualThreadMaxConcurrency) {
+		this.virtualThreadMaxConcurrency = virtualThreadMaxConcurrency;
+	}
 }
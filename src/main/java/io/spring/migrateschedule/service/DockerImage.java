@@ -19,10 +19,11 @@ package io.spring.migrateschedule.service;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Docker image name parsing utility Code from https://github.com/vmware/admiral
+ * <p>
+ * Image names are parsed in a single pass over their characters.
  */
 public class DockerImage {
 
@@ -30,12 +31,12 @@ public class DockerImage {
 
 	public static final String TAG_SEPARATOR = ":";
 
+	public static final String DIGEST_SEPARATOR = "@";
+
 	public static final String DEFAULT_NAMESPACE = "library";
 
 	public static final String DEFAULT_TAG = "latest";
 
-	private static final Pattern NAMESPACE_PATTERN = Pattern.compile("[a-z0-9_]+");
-
 	private static final List<String> OFFICIAL_REGISTRY_LIST = Collections
 			.unmodifiableList(Arrays.asList(
 					"registry.hub.docker.com",
@@ -49,91 +50,121 @@ public class DockerImage {
 
 	private String tag;
 
+	private String digest;
+
 	/**
-	 * parse a full image name (myhost:300/namespace/repo:tag) into its components
+	 * parse a full image name (myhost:300/namespace/repo:tag@digest) into its components
 	 *
 	 * @param imageName the image name
 	 * @return the corresponding DockerImage instance
 	 */
 	public static DockerImage fromImageName(String imageName) {
-		String[] parts = imageName.split(SECTION_SEPARATOR);
-		DockerImage result = null;
-		switch (parts.length) {
-			case 0:
-				throw new IllegalArgumentException("Invalid image format: " + imageName);
-
-			case 1:
-				// only one section - it is the repository name with optional tag
-				result = fromParts(null, null, parts[0]);
-				break;
-
-			case 2:
-				// since there are two sections the second one can be either a host or a namespace
-				if (isValidNamespace(parts[0])) {
-					result = fromParts(null, parts[0], parts[1]);
-				}
-				else {
-					result = fromParts(parts[0], null, parts[1]);
-				}
-				break;
-
-			default:
-				// three or more sections present: host, namespace and repo. According to Docker
-				// documentation, the most common case is to have two path components in the name of the
-				// repository, however, it is possible to have a different number of path segments:
-				// https://docs.docker.com/registry/spec/api/#overview
-				// We are going to treat the extra path arguments as part of the namespace, e.g. the
-				// repo name host:port/path/to/repo will have "host:port" for host, "path/to" for
-				// namespace and "repo" for name.
-
-				String host = parts[0];
-				String repo = parts[parts.length - 1];
-				String namespace = imageName.substring(host.length() + SECTION_SEPARATOR.length(),
-						imageName.length() - repo.length() - SECTION_SEPARATOR.length());
-				result = fromParts(host, namespace, repo);
-
+		if (imageName == null || imageName.isEmpty()) {
+			throw new IllegalArgumentException("Invalid image format: " + imageName);
+		}
+		int digestIndex = imageName.indexOf(DIGEST_SEPARATOR);
+		int nameEnd = (digestIndex < 0) ? imageName.length() : digestIndex;
+		String digest = null;
+		if (digestIndex >= 0) {
+			digest = imageName.substring(digestIndex + 1);
+			if (digest.isEmpty() || digest.indexOf('@') >= 0) {
+				throw new IllegalArgumentException("Invalid image digest format: " + imageName);
+			}
+		}
+		int firstSeparator = imageName.indexOf('/');
+		int lastSeparator = imageName.lastIndexOf('/', nameEnd - 1);
+		if (firstSeparator >= nameEnd) {
+			firstSeparator = -1;
+		}
+		String host = null;
+		String namespace = null;
+		if (firstSeparator == 0 || lastSeparator == nameEnd - 1) {
+			throw new IllegalArgumentException("Invalid image format: " + imageName);
 		}
-		return result;
+		if (firstSeparator > 0 && firstSeparator == lastSeparator) {
+			// since there are two sections the first one can be either a host or a namespace
+			if (isValidNamespace(imageName, 0, firstSeparator)) {
+				namespace = imageName.substring(0, firstSeparator);
+			}
+			else {
+				host = imageName.substring(0, firstSeparator);
+			}
+		}
+		else if (firstSeparator > 0) {
+			// three or more sections present: host, namespace and repo. According to Docker
+			// documentation, the most common case is to have two path components in the name of the
+			// repository, however, it is possible to have a different number of path segments:
+			// https://docs.docker.com/registry/spec/api/#overview
+			// We are going to treat the extra path arguments as part of the namespace, e.g. the
+			// repo name host:port/path/to/repo will have "host:port" for host, "path/to" for
+			// namespace and "repo" for name.
+			host = imageName.substring(0, firstSeparator);
+			namespace = imageName.substring(firstSeparator + 1, lastSeparator);
+		}
+		return fromParts(host, namespace, imageName, lastSeparator + 1, nameEnd, digest);
 	}
 
 	public static DockerImage fromParts(String hostPart, String namespacePart, String repoAndTagPart) {
-		String[] repoParts = repoAndTagPart.split(TAG_SEPARATOR);
-		switch (repoParts.length) {
-			case 1:
-				// no tag
-				return fromParts(hostPart, namespacePart, repoParts[0], DEFAULT_TAG);
-
-			case 2:
-				// with tag
-				return fromParts(hostPart, namespacePart, repoParts[0], repoParts[1]);
-
-			default:
-				throw new IllegalArgumentException("Invalid repository and tag format: "
-						+ repoAndTagPart);
+		return fromParts(hostPart, namespacePart, repoAndTagPart, 0, repoAndTagPart.length(), null);
+	}
+
+	private static DockerImage fromParts(String hostPart, String namespacePart, String name, int repoStart,
+			int repoEnd, String digest) {
+		int tagIndex = name.indexOf(':', repoStart);
+		if (tagIndex < 0 || tagIndex >= repoEnd) {
+			// no tag
+			return fromParts(hostPart, namespacePart, name.substring(repoStart, repoEnd),
+					(digest != null) ? null : DEFAULT_TAG, digest);
+		}
+		int nextTagIndex = name.indexOf(':', tagIndex + 1);
+		if (nextTagIndex >= 0 && nextTagIndex < repoEnd) {
+			throw new IllegalArgumentException("Invalid repository and tag format: "
+					+ name.substring(repoStart, repoEnd));
 		}
+		String tag = (tagIndex + 1 < repoEnd) ? name.substring(tagIndex + 1, repoEnd) : DEFAULT_TAG;
+		return fromParts(hostPart, namespacePart, name.substring(repoStart, tagIndex), tag, digest);
 	}
 
 	public static DockerImage fromParts(String hostPart, String namespacePart, String repo,
 			String tag) {
+		return fromParts(hostPart, namespacePart, repo, tag, null);
+	}
+
+	public static DockerImage fromParts(String hostPart, String namespacePart, String repo,
+			String tag, String digest) {
 
 		DockerImage dockerImage = new DockerImage();
 		dockerImage.host = hostPart;
 		dockerImage.namespace = namespacePart;
 		dockerImage.repository = repo;
 		dockerImage.tag = tag;
+		dockerImage.digest = digest;
 
 		return dockerImage;
 	}
 
 	/**
 	 * When a image name part can be ambiguously either host or namespace, check which one it
-	 * is based on a regex of valid characters for the namespace part
+	 * is based on the valid characters for the namespace part, i.e. {@code [a-z0-9_]+}
 	 *
 	 * @param namespaceCandidate candidate string for host or namespace
 	 * @return true if namespace, false otherwise
 	 */
 	public static boolean isValidNamespace(String namespaceCandidate) {
-		return NAMESPACE_PATTERN.matcher(namespaceCandidate).matches();
+		return isValidNamespace(namespaceCandidate, 0, namespaceCandidate.length());
+	}
+
+	private static boolean isValidNamespace(String value, int start, int end) {
+		if (start >= end) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			char c = value.charAt(i);
+			if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_')) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -175,6 +206,13 @@ public class DockerImage {
 		return tag;
 	}
 
+	/**
+	 * @return the digest, e.g. sha256:..., or null if the image is not referenced by digest
+	 */
+	public String getDigest() {
+		return digest;
+	}
+
 	public boolean isDockerHubImage() {
 		return host == null || OFFICIAL_REGISTRY_LIST.contains(host);
 	}
@@ -207,6 +245,11 @@ public class DockerImage {
 			imageName.append(tag);
 		}
 
+		if (digest != null) {
+			imageName.append(DIGEST_SEPARATOR);
+			imageName.append(digest);
+		}
+
 		return imageName.toString();
 	}
 }
@@ -16,32 +16,270 @@
 
 package io.spring.migrateschedule.service;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.batch.CronJob;
+import io.fabric8.kubernetes.api.model.batch.CronJobList;
+import io.fabric8.kubernetes.client.HttpClientAware;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 
-@Profile("Kubernetes")
-@Configuration
+import org.springframework.cloud.dataflow.core.TaskDefinition;
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerPropertyKeys;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Migrates the CronJobs created by the SCDF Kubernetes scheduler. The CronJobs are
+ * retrieved a page at a time using the {@code limit} and {@code continue} parameters of
+ * the Kubernetes list API and each page is emitted as it is retrieved, so that the
+ * CronJobs of a namespace are never retrieved at once.
+ * The list request is issued through the http client of the {@link KubernetesClient}
+ * since its DSL does not support paginated lists. A continue token expires after a few
+ * minutes, the CronJobs are then listed again from the first page.
+ * <p>
+ * The CronJobs created by the migration are labeled, so that the list requests leave
+ * them out. The Kubernetes API has no request that creates or deletes several
+ * CronJobs, so each CronJob is created and deleted by the {@code KubernetesScheduler},
+ * the CronJobs of a chunk concurrently when a writer concurrency is set.
+ */
 public class KubernetesMigrateSchedulerService extends AbstractMigrateService {
 
-	public KubernetesMigrateSchedulerService(ConverterProperties converterProperties, TaskDefinitionRepository taskDefinitionRepository) {
-		super(converterProperties, taskDefinitionRepository);
+	private static final Logger logger = LoggerFactory.getLogger(KubernetesMigrateSchedulerService.class);
+
+	/**
+	 * The label SCDF adds to the CronJobs it creates, its value is the name of the task
+	 * definition.
+	 */
+	private final static String SPRING_CRONJOB_ID_KEY = "spring-cronjob-id";
+
+	/**
+	 * The label added to the CronJobs created by the migration.
+	 */
+	private final static String SPRING_CRONJOB_MIGRATED_KEY = "spring-cronjob-migrated";
+
+	private final static String CRONJOBS_SELECTOR = SPRING_CRONJOB_ID_KEY + ",!" + SPRING_CRONJOB_MIGRATED_KEY;
+
+	private final static String MIGRATED_LABEL_PATCH = "{\"metadata\":{\"labels\":{\"" + SPRING_CRONJOB_MIGRATED_KEY +
+			"\":\"true\"}}}";
+
+	private final static MediaType MERGE_PATCH = MediaType.parse("application/merge-patch+json");
+
+	/**
+	 * The status returned when a continue token has expired.
+	 */
+	private final static int GONE = 410;
+
+	private final static String DEFAULT_NAMESPACE = "default";
+
+	private KubernetesClient kubernetesClient;
+
+	private OkHttpClient httpClient;
+
+	private ConverterProperties converterProperties;
+
+	public KubernetesMigrateSchedulerService(KubernetesClient kubernetesClient, ConverterProperties converterProperties,
+			TaskDefinitionRepository taskDefinitionRepository, MigrationMetrics migrationMetrics) {
+		super(converterProperties, taskDefinitionRepository, migrationMetrics);
+		Assert.notNull(kubernetesClient, "kubernetesClient must not be null");
+		Assert.isInstanceOf(HttpClientAware.class, kubernetesClient, "kubernetesClient must provide its http client");
+		this.kubernetesClient = kubernetesClient;
+		this.httpClient = ((HttpClientAware) kubernetesClient).getHttpClient();
+		this.converterProperties = converterProperties;
 	}
+
+	/**
+	 * The CronJobs are paged with a continue token that is only kept while they are
+	 * listed. When the token expires the CronJobs are listed again from the first page,
+	 * the CronJobs already emitted are then emitted again.
+	 */
 	@Override
-	public List<ConvertScheduleInfo> scheduleInfoList() {
-		return new ArrayList<>();
+	public Flux<List<ConvertScheduleInfo>> scheduleInfoPages() {
+		return Flux.generate(CronJobPages::new, (pages, sink) -> {
+			if (pages.continueToken == null) {
+				sink.complete();
+				return pages;
+			}
+			CronJobList cronJobs = requestCronJobs(pages);
+			List<ConvertScheduleInfo> page = new ArrayList<>(cronJobs.getItems().size());
+			for (CronJob cronJob : cronJobs.getItems()) {
+				page.add(toScheduleInfo(cronJob));
+			}
+			pages.continueToken = getNextContinueToken(cronJobs);
+			sink.next(page);
+			return pages;
+		});
+	}
+
+	/**
+	 * Label the new CronJob so that the list requests leave it out. The CronJobs that
+	 * cannot be labeled are still recognized by their name when they are listed, so a
+	 * failure is only logged.
+	 */
+	@Override
+	public void markMigratedSchedule(ConvertScheduleInfo scheduleInfo) {
+		String cronJobName = getMigratedScheduleName(scheduleInfo);
+		Request request = new Request.Builder()
+				.patch(RequestBody.create(MERGE_PATCH, MIGRATED_LABEL_PATCH))
+				.url(cronJobsUrl().addPathSegment(cronJobName).build())
+				.build();
+		getMigrationMetrics().timeRemoteCall(MigrationMetrics.LABEL_CRON_JOB, scheduleInfo, MigrationPhase.SCHEDULE, () -> {
+			try (Response response = this.httpClient.newCall(request).execute()) {
+				if (!response.isSuccessful()) {
+					logger.warn(String.format("Unable to label the CronJob %s: %s %s", cronJobName,
+							response.code(), response.message()));
+				}
+			}
+			catch (IOException exception) {
+				logger.warn(String.format("Unable to label the CronJob %s", cronJobName), exception);
+			}
+		});
 	}
 
 	@Override
 	public ConvertScheduleInfo enrichScheduleMetadata(ConvertScheduleInfo scheduleInfo) {
+		Map<String, String> appProperties = getSpringAppProperties(scheduleInfo.getScheduleProperties());
+		String taskDefinitionName = appProperties.getOrDefault("spring.cloud.task.name", scheduleInfo.getTaskDefinitionName());
+		TaskDefinition taskDefinition = findTaskDefinitionByName(taskDefinitionName);
+		if (taskDefinition == null) {
+			throw new IllegalStateException(String.format("The task definition %s for the schedule %s " +
+							"does not exist and thus the schedule can't be migrated",
+					taskDefinitionName, scheduleInfo.getScheduleName()));
+		}
+		return tagScheduleMetadata(scheduleInfo, taskDefinition, appProperties);
+	}
+
+	/**
+	 * Retrieve the next page of the CronJobs, listing them again from the first page
+	 * when the continue token has expired.
+	 */
+	private CronJobList requestCronJobs(CronJobPages pages) {
+		while (true) {
+			try {
+				return requestCronJobs(pages.continueToken);
+			}
+			catch (KubernetesClientException exception) {
+				if (exception.getCode() != GONE || pages.relists++ >= this.converterProperties.getRetryLimit()) {
+					throw exception;
+				}
+				logger.info("The continue token expired, listing the CronJobs again");
+				pages.continueToken = "";
+			}
+		}
+	}
+
+	/**
+	 * Retrieve the CronJobs created by SCDF, and not yet migrated, that follow a continue
+	 * token.
+	 * @param continueToken the continue token, empty for the first page.
+	 * @return the CronJobs.
+	 * @throws KubernetesClientException with the status code if the request fails, 410
+	 * if the continue token expired.
+	 */
+	private CronJobList requestCronJobs(String continueToken) {
+		HttpUrl.Builder url = cronJobsUrl()
+				.addQueryParameter("labelSelector", CRONJOBS_SELECTOR)
+				.addQueryParameter("limit", String.valueOf(this.converterProperties.getKubernetesPageSize()));
+		if (StringUtils.hasText(continueToken)) {
+			url.addQueryParameter("continue", continueToken);
+		}
+		Request request = new Request.Builder().get().url(url.build()).build();
+		Timer.Sample sample = Timer.start(getMigrationMetrics().getMeterRegistry());
+		try (Response response = this.httpClient.newCall(request).execute()) {
+			if (!response.isSuccessful()) {
+				throw new KubernetesClientException(String.format("Unable to retrieve the CronJobs: %s %s",
+						response.code(), response.message()), response.code(), null);
+			}
+			CronJobList result = Serialization.jsonMapper().readValue(response.body().byteStream(), CronJobList.class);
+			getMigrationMetrics().pageFetched();
+			return result;
+		}
+		catch (IOException exception) {
+			throw new KubernetesClientException("Unable to retrieve the CronJobs", exception);
+		}
+		finally {
+			sample.stop(getMigrationMetrics().remoteCall(MigrationMetrics.LIST_CRON_JOBS));
+		}
+	}
+
+	private String getNextContinueToken(CronJobList cronJobs) {
+		String result = (cronJobs.getMetadata() != null) ? cronJobs.getMetadata().getContinue() : null;
+		return StringUtils.hasText(result) ? result : null;
+	}
+
+	private HttpUrl.Builder cronJobsUrl() {
+		String namespace = this.kubernetesClient.getNamespace();
+		return HttpUrl.parse(this.kubernetesClient.getMasterUrl().toString()).newBuilder()
+				.addPathSegments("apis/batch/v1beta1/namespaces")
+				.addPathSegment(StringUtils.hasText(namespace) ? namespace : DEFAULT_NAMESPACE)
+				.addPathSegment("cronjobs");
+	}
+
+	private ConvertScheduleInfo toScheduleInfo(CronJob cronJob) {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName(cronJob.getMetadata().getName());
+		scheduleInfo.setTaskDefinitionName(cronJob.getMetadata().getLabels().get(SPRING_CRONJOB_ID_KEY));
+		Map<String, String> scheduleProperties = new HashMap<>();
+		scheduleProperties.put(SchedulerPropertyKeys.CRON_EXPRESSION, cronJob.getSpec().getSchedule());
+		Container container = getContainer(cronJob);
+		if (container != null) {
+			if (container.getArgs() != null) {
+				scheduleInfo.setCommandLineArgs(new ArrayList<>(container.getArgs()));
+			}
+			if (container.getEnv() != null) {
+				for (EnvVar envVar : container.getEnv()) {
+					if (envVar.getValue() != null) {
+						scheduleProperties.put(envVar.getName(), envVar.getValue());
+					}
+				}
+			}
+		}
+		scheduleInfo.setScheduleProperties(scheduleProperties);
 		return scheduleInfo;
 	}
 
-	@Override
-	public void migrateSchedule(Scheduler scheduler, ConvertScheduleInfo scheduleInfo) {
+	private Container getContainer(CronJob cronJob) {
+		if (cronJob.getSpec().getJobTemplate() == null
+				|| cronJob.getSpec().getJobTemplate().getSpec() == null
+				|| cronJob.getSpec().getJobTemplate().getSpec().getTemplate() == null) {
+			return null;
+		}
+		PodSpec podSpec = cronJob.getSpec().getJobTemplate().getSpec().getTemplate().getSpec();
+		if (podSpec == null || podSpec.getContainers() == null || podSpec.getContainers().isEmpty()) {
+			return null;
+		}
+		return podSpec.getContainers().get(0);
+	}
+
+	/**
+	 * The state of a listing of the CronJobs.
+	 */
+	private static class CronJobPages {
+
+		/**
+		 * The continue token of the next page, empty for the first page and null once the
+		 * last page has been retrieved.
+		 */
+		private String continueToken = "";
 
+		private int relists;
 	}
 }
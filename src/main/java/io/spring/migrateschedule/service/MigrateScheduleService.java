@@ -16,19 +16,38 @@
 
 package io.spring.migrateschedule.service;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.dataflow.core.TaskDefinition;
 import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
 import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
+import org.springframework.core.io.Resource;
 
 public interface MigrateScheduleService {
 
 	/**
-	 * Retrieve all available {@link ScheduleInfo}s.
-	 * @return list of available ScheduleInfos
+	 * Retrieve all available {@link ScheduleInfo}s a page at a time, so that they are
+	 * never retrieved at once. Each page is emitted as soon as it is retrieved, in the
+	 * order of the pages.
+	 * @return the pages of available ScheduleInfos.
+	 */
+	Flux<List<ConvertScheduleInfo>> scheduleInfoPages();
+
+	/**
+	 * Retrieve the remote metadata required to enrich the {@link ScheduleInfo}s in bulk so
+	 * that subsequent calls to {@link #enrichScheduleMetadata(ConvertScheduleInfo)} for
+	 * these schedules do not each need a remote call.
+	 * @param scheduleInfos the schedules that are about to be enriched.
 	 */
-	List<ConvertScheduleInfo> scheduleInfoList();
+	default void prefetchScheduleMetadata(List<ConvertScheduleInfo> scheduleInfos) {
+	}
 
 	/**
 	 * Add properties and commandLine args to the {@link ScheduleInfo}
@@ -37,12 +56,74 @@ public interface MigrateScheduleService {
 	ConvertScheduleInfo enrichScheduleMetadata(ConvertScheduleInfo scheduleInfo);
 
 	/**
-	 * Migrates existing schedule to new SCDF schedule.
+	 * Add properties and commandLine args to the {@link ScheduleInfo} without blocking.
+	 * By default {@link #enrichScheduleMetadata(ConvertScheduleInfo)} is called on a
+	 * bounded elastic thread.
+	 * @return enriched {@link ScheduleInfo}
+	 */
+	default Mono<ConvertScheduleInfo> requestEnrichedScheduleInfo(ConvertScheduleInfo scheduleInfo) {
+		return Mono.fromCallable(() -> enrichScheduleMetadata(scheduleInfo)).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Retrieve the environment of the application launched by the schedule, that is
+	 * added to the schedule properties when the schedule is enriched.
+	 * @param scheduleInfo the schedule as listed, before it is enriched.
+	 * @return the environment, empty if the platform does not provide one.
+	 */
+	default Map<String, String> getScheduleEnvironment(ConvertScheduleInfo scheduleInfo) {
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * Migrates existing schedule to new SCDF schedule. The new schedule is not created
+	 * again when it already has been, see
+	 * {@link ConvertScheduleInfo#isMigratedScheduleCreated()}, so that a migration that
+	 * failed to remove the existing schedule can be retried.
 	 * @param scheduler the deployer scheduler to build the new schedule.
 	 * @param scheduleInfo the schedule info containing the existing schedule.
 	 */
 	void migrateSchedule(Scheduler scheduler, ConvertScheduleInfo scheduleInfo);
 
+	/**
+	 * Mark the new SCDF schedule, once created, so that the listings of the platform
+	 * leave it out. By default the new schedules are listed and recognized with
+	 * {@link #isMigratedSchedule(ScheduleInfo)}.
+	 * @param scheduleInfo the schedule info containing the existing schedule.
+	 */
+	default void markMigratedSchedule(ConvertScheduleInfo scheduleInfo) {
+	}
+
+	/**
+	 * Create the {@link ScheduleRequest} for the new SCDF schedule that replaces the
+	 * existing schedule.
+	 * @param scheduleInfo the schedule info containing the existing schedule.
+	 * @return the request used to create the new schedule.
+	 */
+	ScheduleRequest createScheduleRequest(ConvertScheduleInfo scheduleInfo);
+
+	/**
+	 * Retrieve the name of the new SCDF schedule that replaces the existing schedule.
+	 * @param scheduleInfo the schedule info containing the existing schedule.
+	 * @return the name of the new schedule.
+	 */
+	String getMigratedScheduleName(ConvertScheduleInfo scheduleInfo);
+
+	/**
+	 * Determine whether the schedule is a new SCDF schedule created by a previous
+	 * migration, rather than an existing schedule that has to be migrated.
+	 * @param scheduleInfo the schedule to check.
+	 * @return true if the schedule has already been migrated.
+	 */
+	boolean isMigratedSchedule(ScheduleInfo scheduleInfo);
+
+	/**
+	 * Resolve and validate the task launcher {@link Resource} used by the migrated
+	 * schedules. The resource is resolved once and shared by every migration.
+	 * @return the task launcher resource.
+	 */
+	Resource resolveTaskLauncherResource();
+
 	/**
 	 * Retrieve {@link TaskDefinition} for the name provided
 	 * @param taskDefinitionName the name of the {@link TaskDefinition}.
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+/**
+ * The engines that can migrate the schedules in the MIGRATE mode.
+ */
+public enum MigrationEngine {
+
+	/**
+	 * Migrate the schedules in chunks with a Spring Batch chunk oriented step.
+	 */
+	BATCH,
+
+	/**
+	 * Migrate the schedules with a reactive pipeline listing, enriching, creating and
+	 * removing the schedules concurrently, each stage with its own concurrency.
+	 */
+	REACTIVE
+}
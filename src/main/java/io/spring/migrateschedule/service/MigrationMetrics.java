@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+import org.springframework.util.Assert;
+
+/**
+ * The meters recorded while migrating schedules. The counters track the number of
+ * schedule pages fetched and the number of schedules in each state, the timers track
+ * the latency of each remote call and of the task definition lookups, the cache meters
+ * track the hits, misses and evictions of the caches in front of the lookups.
+ */
+public class MigrationMetrics {
+
+	/**
+	 * Prefix shared by all the meters of the migration.
+	 */
+	public static final String PREFIX = "migration.";
+
+	public static final String PAGES = PREFIX + "pages";
+
+	public static final String SCHEDULES = PREFIX + "schedules";
+
+	public static final String REMOTE_CALLS = PREFIX + "remote.calls";
+
+	public static final String TASK_DEFINITION_LOOKUPS = PREFIX + "taskdefinition.lookups";
+
+	public static final String LIMITER_LIMIT = PREFIX + "limiter.limit";
+
+	public static final String LIMITER_IN_FLIGHT = PREFIX + "limiter.inflight";
+
+	public static final String LIMITER_QUEUE_DEPTH = PREFIX + "limiter.queue";
+
+	public static final String CACHE_GETS = PREFIX + "cache.gets";
+
+	public static final String CACHE_EVICTIONS = PREFIX + "cache.evictions";
+
+	public static final String CACHE_SIZE = PREFIX + "cache.size";
+
+	public static final String LIMITER_TAG = "limiter";
+
+	public static final String CACHE_TAG = "cache";
+
+	public static final String RESULT_TAG = "result";
+
+	public static final String STATE_TAG = "state";
+
+	public static final String OPERATION_TAG = "operation";
+
+	public static final String READ = "read";
+
+	public static final String ENRICHED = "enriched";
+
+	public static final String MIGRATED = "migrated";
+
+	public static final String FAILED = "failed";
+
+	public static final String PLANNED = "planned";
+
+	public static final String SKIPPED = "skipped";
+
+	public static final String EXPORTED = "exported";
+
+	public static final String GET_ENVIRONMENTS = "getEnvironments";
+
+	public static final String LIST_JOBS = "jobs.list";
+
+	public static final String LIST_CRON_JOBS = "cronjobs.list";
+
+	public static final String LABEL_CRON_JOB = "cronjobs.label";
+
+	public static final String TASK_DEFINITIONS = "taskDefinitions";
+
+	public static final String SCHEDULE = "scheduler.schedule";
+
+	public static final String UNSCHEDULE = "scheduler.unschedule";
+
+	public static final String LIST_SCHEDULES = "scheduler.list";
+
+	private final MeterRegistry meterRegistry;
+
+	public MigrationMetrics() {
+		this(new SimpleMeterRegistry());
+	}
+
+	public MigrationMetrics(MeterRegistry meterRegistry) {
+		Assert.notNull(meterRegistry, "meterRegistry must not be null");
+		this.meterRegistry = meterRegistry;
+	}
+
+	public MeterRegistry getMeterRegistry() {
+		return this.meterRegistry;
+	}
+
+	/**
+	 * Count a page of schedules retrieved from the platform.
+	 */
+	public void pageFetched() {
+		Counter.builder(PAGES).register(this.meterRegistry).increment();
+	}
+
+	/**
+	 * Count the schedules that reached a state.
+	 * @param state the state, i.e. {@link #READ}, {@link #ENRICHED}, {@link #MIGRATED},
+	 * {@link #PLANNED}, {@link #SKIPPED}, {@link #EXPORTED} or {@link #FAILED}.
+	 * @param count the number of schedules.
+	 */
+	public void schedules(String state, int count) {
+		Counter.builder(SCHEDULES).tag(STATE_TAG, state).register(this.meterRegistry).increment(count);
+	}
+
+	/**
+	 * @param operation the name of the remote operation.
+	 * @return the timer recording the latency of the operation.
+	 */
+	public Timer remoteCall(String operation) {
+		return Timer.builder(REMOTE_CALLS)
+				.tag(OPERATION_TAG, operation)
+				.publishPercentileHistogram()
+				.register(this.meterRegistry);
+	}
+
+	/**
+	 * Record the latency of a remote call made with the {@link Mono} provided, from
+	 * subscription until it terminates or is cancelled.
+	 * @param operation the name of the remote operation.
+	 * @param mono the remote call.
+	 * @return the timed remote call.
+	 */
+	public <T> Mono<T> timeRemoteCall(String operation, Mono<T> mono) {
+		return Mono.defer(() -> {
+			Timer.Sample sample = Timer.start(this.meterRegistry);
+			return mono.doFinally(signal -> sample.stop(remoteCall(operation)));
+		});
+	}
+
+	/**
+	 * Record the latency of a remote call made for a schedule, both in the timer of the
+	 * operation and as time spent by the schedule in the phase provided.
+	 * @param operation the name of the remote operation.
+	 * @param scheduleInfo the schedule the call is made for.
+	 * @param phase the phase of the migration the call is part of.
+	 * @param call the remote call.
+	 */
+	public void timeRemoteCall(String operation, ConvertScheduleInfo scheduleInfo, MigrationPhase phase, Runnable call) {
+		long start = System.nanoTime();
+		try {
+			call.run();
+		}
+		finally {
+			long elapsed = System.nanoTime() - start;
+			remoteCall(operation).record(elapsed, TimeUnit.NANOSECONDS);
+			scheduleInfo.addPhaseTime(phase, elapsed);
+		}
+	}
+
+	/**
+	 * Expose the current limit, the calls in flight and the calls waiting of a limiter.
+	 * @param name the name of the limited API.
+	 * @param limiter the limiter.
+	 */
+	public void registerLimiter(String name, AdaptiveConcurrencyLimiter limiter) {
+		Gauge.builder(LIMITER_LIMIT, limiter, AdaptiveConcurrencyLimiter::getLimit)
+				.tag(LIMITER_TAG, name).register(this.meterRegistry);
+		Gauge.builder(LIMITER_IN_FLIGHT, limiter, AdaptiveConcurrencyLimiter::getInFlight)
+				.tag(LIMITER_TAG, name).register(this.meterRegistry);
+		Gauge.builder(LIMITER_QUEUE_DEPTH, limiter, AdaptiveConcurrencyLimiter::getQueueDepth)
+				.tag(LIMITER_TAG, name).register(this.meterRegistry);
+	}
+
+	/**
+	 * Record the time spent looking up task definitions in the database.
+	 * @param lookup the lookup.
+	 * @return the result of the lookup.
+	 */
+	public <T> T timeTaskDefinitionLookup(Supplier<T> lookup) {
+		return Timer.builder(TASK_DEFINITION_LOOKUPS)
+				.publishPercentileHistogram()
+				.register(this.meterRegistry)
+				.record(lookup);
+	}
+
+	/**
+	 * Expose the hits, misses, evictions and size of a cache. The cache must record its
+	 * statistics for the hits, misses and evictions to be counted.
+	 * @param name the name of the cache.
+	 * @param cache the cache.
+	 */
+	public void monitorCache(String name, Cache<?, ?> cache) {
+		FunctionCounter.builder(CACHE_GETS, cache, c -> c.stats().hitCount())
+				.tag(CACHE_TAG, name).tag(RESULT_TAG, "hit").register(this.meterRegistry);
+		FunctionCounter.builder(CACHE_GETS, cache, c -> c.stats().missCount())
+				.tag(CACHE_TAG, name).tag(RESULT_TAG, "miss").register(this.meterRegistry);
+		FunctionCounter.builder(CACHE_EVICTIONS, cache, c -> c.stats().evictionCount())
+				.tag(CACHE_TAG, name).register(this.meterRegistry);
+		Gauge.builder(CACHE_SIZE, cache, Cache::estimatedSize)
+				.tag(CACHE_TAG, name).register(this.meterRegistry);
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+/**
+ * The ways the migration job can run.
+ */
+public enum MigrationMode {
+
+	/**
+	 * List, enrich and migrate the existing schedules.
+	 */
+	MIGRATE,
+
+	/**
+	 * List and enrich the existing schedules and write the schedules that would be
+	 * created to the migration plan, without creating or removing any schedule.
+	 */
+	PLAN,
+
+	/**
+	 * Migrate the schedules of a migration plan written by a previous run, without
+	 * listing or enriching the existing schedules again.
+	 */
+	EXECUTE_PLAN,
+
+	/**
+	 * List the existing schedules and write them, with the environment of the
+	 * application each of them launches, to a snapshot that the schedules can later be
+	 * migrated from with the snapshot profile.
+	 */
+	EXPORT_SNAPSHOT
+}
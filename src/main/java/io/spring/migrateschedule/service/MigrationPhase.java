@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+/**
+ * The phases a schedule goes through while it is migrated, for which the time spent is
+ * recorded on each {@link ConvertScheduleInfo}.
+ */
+public enum MigrationPhase {
+
+	/**
+	 * Listing the existing schedules, the time spent listing a page is shared by the
+	 * schedules of the page.
+	 */
+	LIST,
+
+	/**
+	 * Retrieving the task definition and the app properties of the schedule.
+	 */
+	ENRICH,
+
+	/**
+	 * Creating the new schedule.
+	 */
+	SCHEDULE,
+
+	/**
+	 * Removing the existing schedule.
+	 */
+	UNSCHEDULE
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Tags the command line arguments and app properties of a schedule so that they are
+ * passed through the task launcher to the task application. The prefixes derived from
+ * the task launcher prefix are computed once per migration, and each key is classified
+ * once, so that tagging a schedule only allocates the tagged keys and the result.
+ */
+public final class PropertyTagger {
+
+	static final String TASK_NAME_KEY = "spring.cloud.task.name";
+
+	static final String DATA_FLOW_URI_KEY = "spring.cloud.dataflow.client.serverUri";
+
+	private static final String COMMAND_ARGUMENT_PREFIX = "cmdarg.";
+
+	private final String taskLauncherPrefix;
+
+	private final String commandArgumentPrefix;
+
+	private final String dataflowServerUri;
+
+	private final Map<String, String> propertyPrefixes = new ConcurrentHashMap<>();
+
+	/**
+	 * @param taskLauncherPrefix the prefix of the properties passed to the task launcher.
+	 * @param dataflowServerUri the URI of the Data Flow server the task launcher uses.
+	 */
+	public PropertyTagger(String taskLauncherPrefix, String dataflowServerUri) {
+		Assert.notNull(taskLauncherPrefix, "taskLauncherPrefix must not be null");
+		this.taskLauncherPrefix = taskLauncherPrefix + ".";
+		this.commandArgumentPrefix = COMMAND_ARGUMENT_PREFIX + this.taskLauncherPrefix;
+		this.dataflowServerUri = dataflowServerUri;
+	}
+
+	/**
+	 * Tag the command line arguments, the task name argument is removed.
+	 * @param args the command line arguments of the schedule.
+	 * @return the tagged arguments, with room for one more argument.
+	 */
+	public List<String> tagCommandLineArgs(List<String> args) {
+		List<String> result = new ArrayList<>(args.size() + 1);
+		for (String arg : args) {
+			switch (classify(arg)) {
+				case TAG:
+					result.add(this.commandArgumentPrefix.concat(arg));
+					break;
+				case RETAIN:
+					result.add(arg);
+					break;
+				default:
+					break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Tag the app properties, the task name property is removed.
+	 * @param appName the registered name of the app or null for none.
+	 * @param appProperties the app properties of the schedule.
+	 * @param prefix the prefix of the type of property, for example {@code app.}.
+	 * @return the tagged properties.
+	 */
+	public Map<String, String> tagProperties(String appName, Map<String, String> appProperties, String prefix) {
+		return tagProperties(appName, appProperties, prefix, 0);
+	}
+
+	/**
+	 * Tag the app properties and add the Data Flow server URI the task launcher uses.
+	 * @param appName the registered name of the app or null for none.
+	 * @param appProperties the app properties of the schedule.
+	 * @param prefix the prefix of the type of property, for example {@code app.}.
+	 * @return the tagged properties.
+	 */
+	public Map<String, String> tagSchedulerAppProperties(String appName, Map<String, String> appProperties,
+			String prefix) {
+		Map<String, String> result = tagProperties(appName, appProperties, prefix, 1);
+		result.put(DATA_FLOW_URI_KEY, this.dataflowServerUri);
+		return result;
+	}
+
+	private Map<String, String> tagProperties(String appName, Map<String, String> appProperties, String prefix,
+			int extraCapacity) {
+		Map<String, String> result = new HashMap<>(capacity(appProperties.size() + extraCapacity));
+		String propertyPrefix = null;
+		for (Map.Entry<String, String> entry : appProperties.entrySet()) {
+			String key = entry.getKey();
+			switch (classify(key)) {
+				case TAG:
+					if (propertyPrefix == null) {
+						propertyPrefix = getPropertyPrefix(appName, prefix);
+					}
+					result.put(propertyPrefix.concat(key), entry.getValue());
+					break;
+				case RETAIN:
+					result.put(key, entry.getValue());
+					break;
+				default:
+					break;
+			}
+		}
+		return result;
+	}
+
+	private String getPropertyPrefix(String appName, String prefix) {
+		String key = StringUtils.hasText(appName) ? prefix + appName : prefix;
+		return this.propertyPrefixes.computeIfAbsent(key, k -> StringUtils.hasText(appName) ?
+				this.taskLauncherPrefix + prefix + appName + "." : this.taskLauncherPrefix + prefix);
+	}
+
+	/**
+	 * Keys naming the task are removed, keys for the Data Flow server are retained
+	 * and all other keys are tagged.
+	 */
+	static Tag classify(String key) {
+		if (key.contains(TASK_NAME_KEY)) {
+			return Tag.REMOVE;
+		}
+		return key.startsWith(DATA_FLOW_URI_KEY) ? Tag.RETAIN : Tag.TAG;
+	}
+
+	private static int capacity(int size) {
+		return (int) (size / 0.75f) + 1;
+	}
+
+	enum Tag {
+
+		TAG,
+
+		RETAIN,
+
+		REMOVE
+	}
+}
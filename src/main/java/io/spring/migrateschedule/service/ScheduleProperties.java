@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The properties of a schedule. The keys of the scheduler properties are indexed as
+ * they are inserted so that the scheduler properties are selected as a view without
+ * copying or scanning the properties of the schedule.
+ */
+public class ScheduleProperties extends AbstractMap<String, String> {
+
+	public static final String SCHEDULER_PREFIX = "spring.cloud.scheduler.";
+
+	private final Map<String, String> properties;
+
+	/**
+	 * The keys of the scheduler properties, null until the first one is inserted.
+	 */
+	private Set<String> schedulerKeys;
+
+	private Set<Entry<String, String>> entrySet;
+
+	public ScheduleProperties() {
+		this.properties = new HashMap<>();
+	}
+
+	public ScheduleProperties(Map<String, String> properties) {
+		this.properties = new HashMap<>((int) (properties.size() / 0.75f) + 1);
+		putAll(properties);
+	}
+
+	/**
+	 * @return a read only view of the properties with keys starting with
+	 * {@link #SCHEDULER_PREFIX}.
+	 */
+	public Map<String, String> getSchedulerProperties() {
+		return new SchedulerProperties();
+	}
+
+	@Override
+	public int size() {
+		return this.properties.size();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.properties.containsKey(key);
+	}
+
+	@Override
+	public String get(Object key) {
+		return this.properties.get(key);
+	}
+
+	@Override
+	public String put(String key, String value) {
+		if (isSchedulerKey(key)) {
+			if (this.schedulerKeys == null) {
+				this.schedulerKeys = new HashSet<>();
+			}
+			this.schedulerKeys.add(key);
+		}
+		return this.properties.put(key, value);
+	}
+
+	@Override
+	public String remove(Object key) {
+		removeSchedulerKey(key);
+		return this.properties.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		this.properties.clear();
+		this.schedulerKeys = null;
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		Set<Entry<String, String>> result = this.entrySet;
+		if (result == null) {
+			result = new EntrySet();
+			this.entrySet = result;
+		}
+		return result;
+	}
+
+	private void removeSchedulerKey(Object key) {
+		if (this.schedulerKeys != null && key instanceof String && isSchedulerKey((String) key)) {
+			this.schedulerKeys.remove(key);
+		}
+	}
+
+	private static boolean isSchedulerKey(String key) {
+		return key != null && key.startsWith(SCHEDULER_PREFIX);
+	}
+
+	private class SchedulerProperties extends AbstractMap<String, String> {
+
+		@Override
+		public int size() {
+			return (schedulerKeys != null) ? schedulerKeys.size() : 0;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return schedulerKeys != null && schedulerKeys.contains(key);
+		}
+
+		@Override
+		public String get(Object key) {
+			return containsKey(key) ? properties.get(key) : null;
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			return new AbstractSet<Entry<String, String>>() {
+
+				@Override
+				public int size() {
+					return SchedulerProperties.this.size();
+				}
+
+				@Override
+				public Iterator<Entry<String, String>> iterator() {
+					Iterator<String> keys = (schedulerKeys != null) ?
+							schedulerKeys.iterator() : Collections.<String>emptyIterator();
+					return new Iterator<Entry<String, String>>() {
+
+						@Override
+						public boolean hasNext() {
+							return keys.hasNext();
+						}
+
+						@Override
+						public Entry<String, String> next() {
+							String key = keys.next();
+							return new SimpleImmutableEntry<>(key, properties.get(key));
+						}
+					};
+				}
+			};
+		}
+	}
+
+	private class EntrySet extends AbstractSet<Entry<String, String>> {
+
+		@Override
+		public int size() {
+			return properties.size();
+		}
+
+		@Override
+		public void clear() {
+			ScheduleProperties.this.clear();
+		}
+
+		@Override
+		public Iterator<Entry<String, String>> iterator() {
+			Iterator<Entry<String, String>> iterator = properties.entrySet().iterator();
+			return new Iterator<Entry<String, String>>() {
+
+				private Entry<String, String> current;
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Entry<String, String> next() {
+					this.current = iterator.next();
+					return this.current;
+				}
+
+				@Override
+				public void remove() {
+					iterator.remove();
+					removeSchedulerKey(this.current.getKey());
+				}
+			};
+		}
+	}
+}
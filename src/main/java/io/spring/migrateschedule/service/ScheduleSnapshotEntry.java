@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A line of a schedule snapshot: a schedule as listed by the platform, before it is
+ * enriched, and the environment of the application it launches.
+ */
+public class ScheduleSnapshotEntry {
+
+	private ConvertScheduleInfo schedule;
+
+	private Map<String, String> environment = new HashMap<>();
+
+	public ScheduleSnapshotEntry() {
+	}
+
+	public ScheduleSnapshotEntry(ConvertScheduleInfo schedule, Map<String, String> environment) {
+		this.schedule = schedule;
+		this.environment = environment;
+	}
+
+	public ConvertScheduleInfo getSchedule() {
+		return schedule;
+	}
+
+	public void setSchedule(ConvertScheduleInfo schedule) {
+		this.schedule = schedule;
+	}
+
+	public Map<String, String> getEnvironment() {
+		return environment;
+	}
+
+	public void setEnvironment(Map<String, String> environment) {
+		this.environment = environment;
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerException;
+import org.springframework.util.Assert;
+
+/**
+ * Migrates the schedules of a snapshot exported from a platform instead of listing
+ * them from the platform, so that the schedules can be enriched and planned without
+ * calling the platform. The snapshot is a JSON {@link ScheduleSnapshotEntry} per line,
+ * gzip compressed when the file name ends with {@code .gz}. The snapshot is read as a
+ * stream once, when the schedules are first listed, and the schedules are then paged
+ * from memory. The snapshot is held as {@link CompactScheduleInfo}s, with the property
+ * keys deduplicated across schedules. Each page holds copies of the schedules so that
+ * a page read again is enriched again from the snapshot.
+ */
+public class SnapshotMigrateSchedulerService extends AbstractMigrateService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SnapshotMigrateSchedulerService.class);
+
+	private static final String GZIP_EXTENSION = ".gz";
+
+	private final ObjectReader objectReader = new ObjectMapper().readerFor(ScheduleSnapshotEntry.class);
+
+	private final Path snapshotFile;
+
+	private final int pageSize;
+
+	private volatile Snapshot snapshot;
+
+	public SnapshotMigrateSchedulerService(ConverterProperties converterProperties,
+			TaskDefinitionRepository taskDefinitionRepository, MigrationMetrics migrationMetrics) {
+		super(converterProperties, taskDefinitionRepository, migrationMetrics);
+		Assert.hasText(converterProperties.getSnapshotFile(), "snapshotFile must not be empty");
+		Assert.isTrue(converterProperties.getSnapshotPageSize() > 0, "snapshotPageSize must be greater than 0");
+		this.snapshotFile = Paths.get(converterProperties.getSnapshotFile());
+		this.pageSize = converterProperties.getSnapshotPageSize();
+	}
+
+	@Override
+	public Flux<List<ConvertScheduleInfo>> scheduleInfoPages() {
+		return Flux.defer(() -> Flux.fromIterable(getSnapshot().entries))
+				.buffer(this.pageSize)
+				.map(entries -> {
+					List<ConvertScheduleInfo> result = new ArrayList<>(entries.size());
+					for (CompactSnapshotEntry entry : entries) {
+						result.add(entry.schedule.toScheduleInfo());
+					}
+					getMigrationMetrics().pageFetched();
+					return result;
+				});
+	}
+
+	@Override
+	public ConvertScheduleInfo enrichScheduleMetadata(ConvertScheduleInfo scheduleInfo) {
+		return enrichScheduleMetadata(scheduleInfo, getScheduleEnvironment(scheduleInfo));
+	}
+
+	@Override
+	public Map<String, String> getScheduleEnvironment(ConvertScheduleInfo scheduleInfo) {
+		CompactSnapshotEntry entry = getSnapshot().entriesByName.get(scheduleInfo.getScheduleName());
+		return (entry != null) ? entry.environment : Collections.emptyMap();
+	}
+
+	private Snapshot getSnapshot() {
+		Snapshot result = this.snapshot;
+		if (result == null) {
+			synchronized (this) {
+				result = this.snapshot;
+				if (result == null) {
+					result = new Snapshot(readSnapshot());
+					this.snapshot = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the entries of the snapshot keyed by schedule name, in the order of the
+	 * snapshot. A schedule exported twice by a retried chunk is only kept once.
+	 */
+	private Map<String, CompactSnapshotEntry> readSnapshot() {
+		Map<String, CompactSnapshotEntry> result = new LinkedHashMap<>();
+		UnaryOperator<String> deduplicator = CompactProperties.deduplicator();
+		try (InputStream inputStream = open();
+				BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+				MappingIterator<ScheduleSnapshotEntry> iterator = this.objectReader.readValues(reader)) {
+			while (iterator.hasNext()) {
+				ScheduleSnapshotEntry entry = iterator.next();
+				result.put(entry.getSchedule().getScheduleName(), new CompactSnapshotEntry(
+						CompactScheduleInfo.from(entry.getSchedule(), deduplicator),
+						CompactProperties.of(entry.getEnvironment(), deduplicator)));
+			}
+		}
+		catch (IOException | RuntimeException exception) {
+			throw new SchedulerException(String.format("Unable to read the schedule snapshot %s", this.snapshotFile),
+					exception);
+		}
+		logger.info(String.format("Read %s schedules from the snapshot %s", result.size(), this.snapshotFile));
+		return result;
+	}
+
+	private InputStream open() throws IOException {
+		InputStream result = Files.newInputStream(this.snapshotFile);
+		return this.snapshotFile.toString().endsWith(GZIP_EXTENSION) ? new GZIPInputStream(result) : result;
+	}
+
+	private static class Snapshot {
+
+		private final Map<String, CompactSnapshotEntry> entriesByName;
+
+		private final List<CompactSnapshotEntry> entries;
+
+		private Snapshot(Map<String, CompactSnapshotEntry> entriesByName) {
+			this.entriesByName = entriesByName;
+			this.entries = new ArrayList<>(entriesByName.values());
+		}
+	}
+
+	private static class CompactSnapshotEntry {
+
+		private final CompactScheduleInfo schedule;
+
+		private final Map<String, String> environment;
+
+		private CompactSnapshotEntry(CompactScheduleInfo schedule, Map<String, String> environment) {
+			this.schedule = schedule;
+			this.environment = environment;
+		}
+	}
+}
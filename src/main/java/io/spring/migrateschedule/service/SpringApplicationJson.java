@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Parses the content of a SPRING_APPLICATION_JSON variable into flat properties.
+ * Nested objects are flattened into dotted keys and arrays into indexed keys, the
+ * same way Spring Boot does, i.e. {@code {"a":{"b":[1,2]}}} becomes {@code a.b[0]=1}
+ * and {@code a.b[1]=2}. The JSON is read with a streaming parser from a shared
+ * {@link JsonFactory} so no intermediate object tree is created.
+ */
+public final class SpringApplicationJson {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private SpringApplicationJson() {
+	}
+
+	/**
+	 * Flatten the JSON object provided into properties.
+	 * @param json the JSON object.
+	 * @return the properties in the order they appear in the JSON. Null values are
+	 * returned as empty strings.
+	 * @throws IOException if the content is not a valid JSON object.
+	 */
+	public static Map<String, String> parse(String json) throws IOException {
+		Map<String, String> result = new LinkedHashMap<>();
+		try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new JsonParseException(parser, "SPRING_APPLICATION_JSON must contain a JSON object");
+			}
+			flattenObject(parser, null, result);
+			if (parser.nextToken() != null) {
+				throw new JsonParseException(parser, "Unexpected content after the SPRING_APPLICATION_JSON object");
+			}
+		}
+		return result;
+	}
+
+	private static void flattenObject(JsonParser parser, String prefix, Map<String, String> result) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = (prefix == null) ? parser.getCurrentName() : prefix + "." + parser.getCurrentName();
+			flattenValue(parser, parser.nextToken(), name, result);
+		}
+	}
+
+	private static void flattenArray(JsonParser parser, String prefix, Map<String, String> result) throws IOException {
+		int index = 0;
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			flattenValue(parser, token, prefix + "[" + index++ + "]", result);
+		}
+	}
+
+	private static void flattenValue(JsonParser parser, JsonToken token, String name, Map<String, String> result) throws IOException {
+		if (token == JsonToken.START_OBJECT) {
+			flattenObject(parser, name, result);
+		}
+		else if (token == JsonToken.START_ARRAY) {
+			flattenArray(parser, name, result);
+		}
+		else if (token == JsonToken.VALUE_NULL) {
+			result.put(name, "");
+		}
+		else {
+			result.put(name, parser.getText());
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.dataflow.core.TaskDefinition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded, expiring cache of {@link TaskDefinition}s in front of the
+ * {@link TaskDefinitionRepository}. Optionally the whole task definition table is
+ * read once, a page at a time, into a map keyed by task name so that no single row
+ * queries are issued during the migration.
+ */
+public class TaskDefinitionCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskDefinitionCache.class);
+
+	private static final int PRELOAD_PAGE_SIZE = 500;
+
+	private final TaskDefinitionRepository taskDefinitionRepository;
+
+	private final Cache<String, Optional<TaskDefinition>> cache;
+
+	private final boolean preload;
+
+	private volatile Map<String, TaskDefinition> preloadedTaskDefinitions;
+
+	private final MigrationMetrics migrationMetrics;
+
+	public TaskDefinitionCache(TaskDefinitionRepository taskDefinitionRepository, ConverterProperties converterProperties,
+			MigrationMetrics migrationMetrics) {
+		Assert.notNull(taskDefinitionRepository, "taskDefinitionRepository must not be null");
+		Assert.notNull(migrationMetrics, "migrationMetrics must not be null");
+		this.taskDefinitionRepository = taskDefinitionRepository;
+		this.migrationMetrics = migrationMetrics;
+		this.preload = converterProperties.isPreloadTaskDefinitions();
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(converterProperties.getTaskDefinitionCacheSize())
+				.expireAfterWrite(converterProperties.getTaskDefinitionCacheExpirationInSeconds(), TimeUnit.SECONDS)
+				.recordStats()
+				.build();
+		migrationMetrics.monitorCache(MigrationMetrics.TASK_DEFINITIONS, this.cache);
+	}
+
+	/**
+	 * Retrieve the {@link TaskDefinition} for the name provided.
+	 * @param taskName the name of the {@link TaskDefinition}.
+	 * @return the TaskDefinition or null if none exists.
+	 */
+	public TaskDefinition findByTaskName(String taskName) {
+		if (taskName == null) {
+			return this.migrationMetrics.timeTaskDefinitionLookup(() -> this.taskDefinitionRepository.findByTaskName(null));
+		}
+		if (this.preload) {
+			return getPreloadedTaskDefinitions().get(taskName);
+		}
+		return this.cache.get(taskName,
+				name -> Optional.ofNullable(this.migrationMetrics.timeTaskDefinitionLookup(
+						() -> this.taskDefinitionRepository.findByTaskName(name))))
+				.orElse(null);
+	}
+
+	private Map<String, TaskDefinition> getPreloadedTaskDefinitions() {
+		Map<String, TaskDefinition> result = this.preloadedTaskDefinitions;
+		if (result == null) {
+			synchronized (this) {
+				result = this.preloadedTaskDefinitions;
+				if (result == null) {
+					result = loadTaskDefinitions();
+					this.preloadedTaskDefinitions = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	private Map<String, TaskDefinition> loadTaskDefinitions() {
+		Map<String, TaskDefinition> result = new HashMap<>();
+		Page<TaskDefinition> page;
+		int pageNumber = 0;
+		do {
+			// a stable order so that no task definition is skipped or repeated across pages.
+			PageRequest pageRequest = PageRequest.of(pageNumber++, PRELOAD_PAGE_SIZE, Sort.by("taskName"));
+			page = this.migrationMetrics.timeTaskDefinitionLookup(() -> this.taskDefinitionRepository.findAll(pageRequest));
+			for (TaskDefinition taskDefinition : page) {
+				result.put(taskDefinition.getTaskName(), taskDefinition);
+			}
+		}
+		while (page.hasNext());
+		logger.info(String.format("Preloaded %s task definitions", result.size()));
+		return result;
+	}
+}
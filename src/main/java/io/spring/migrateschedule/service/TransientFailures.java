@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.cloudfoundry.AbstractCloudFoundryException;
+
+/**
+ * Classifies the failures of the remote calls made while migrating the schedules.
+ * A failure is transient when it, or one of its causes, is a timeout, an I/O error,
+ * a rate limit or a server error returned by the platform. Other failures, including
+ * the failures reported by the scheduler without one of these causes, are permanent.
+ */
+public final class TransientFailures {
+
+	private static final int TOO_MANY_REQUESTS = 429;
+
+	private static final int SERVICE_UNAVAILABLE = 503;
+
+	private static final int INTERNAL_SERVER_ERROR = 500;
+
+	private TransientFailures() {
+	}
+
+	/**
+	 * @param throwable the failure.
+	 * @return true if the call that failed can be retried.
+	 */
+	public static boolean isTransient(Throwable throwable) {
+		for (Throwable cause = throwable; cause != null; cause = nextCause(cause)) {
+			Integer statusCode = getStatusCode(cause);
+			if (statusCode != null) {
+				return statusCode == TOO_MANY_REQUESTS || statusCode >= INTERNAL_SERVER_ERROR;
+			}
+			if (cause instanceof TimeoutException || cause instanceof IOException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param throwable the failure.
+	 * @return true if the call failed because the platform is rate limiting the calls
+	 * or is temporarily unavailable.
+	 */
+	public static boolean isRateLimited(Throwable throwable) {
+		for (Throwable cause = throwable; cause != null; cause = nextCause(cause)) {
+			Integer statusCode = getStatusCode(cause);
+			if (statusCode != null) {
+				return statusCode == TOO_MANY_REQUESTS || statusCode == SERVICE_UNAVAILABLE;
+			}
+		}
+		return false;
+	}
+
+	private static Integer getStatusCode(Throwable throwable) {
+		if (throwable instanceof AbstractCloudFoundryException) {
+			return ((AbstractCloudFoundryException) throwable).getStatusCode();
+		}
+		if (throwable instanceof KubernetesClientException && ((KubernetesClientException) throwable).getCode() > 0) {
+			return ((KubernetesClientException) throwable).getCode();
+		}
+		return null;
+	}
+
+	private static Throwable nextCause(Throwable throwable) {
+		return (throwable.getCause() != throwable) ? throwable.getCause() : null;
+	}
+}
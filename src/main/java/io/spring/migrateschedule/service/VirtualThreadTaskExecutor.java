@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.Assert;
+
+/**
+ * Runs each task on its own virtual thread, so that blocking calls to the platform scale
+ * to thousands of concurrent schedules without sizing a pool of platform threads. A
+ * semaphore caps the number of tasks running at once, the virtual thread of a task
+ * submitted above the cap waits for a running task to complete. Submitting a task never
+ * blocks the caller, which may be a thread of a reactive scheduler.
+ * <p>
+ * Virtual threads are created through reflection so that the migration still builds
+ * and runs on Java 8, they require Java 21 or later.
+ */
+public class VirtualThreadTaskExecutor implements TaskExecutor {
+
+	private final ThreadFactory threadFactory;
+
+	private final Semaphore permits;
+
+	private final int maxConcurrency;
+
+	/**
+	 * @param threadNamePrefix the prefix of the names of the virtual threads.
+	 * @param maxConcurrency the maximum number of tasks running at once.
+	 * @throws IllegalStateException if the JVM does not support virtual threads.
+	 */
+	public VirtualThreadTaskExecutor(String threadNamePrefix, int maxConcurrency) {
+		Assert.hasText(threadNamePrefix, "threadNamePrefix must not be empty");
+		Assert.isTrue(maxConcurrency > 0, "maxConcurrency must be greater than 0");
+		this.threadFactory = createVirtualThreadFactory(threadNamePrefix);
+		this.permits = new Semaphore(maxConcurrency);
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * @return true if the JVM supports virtual threads.
+	 */
+	public static boolean isSupported() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		}
+		catch (NoSuchMethodException exception) {
+			return false;
+		}
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		Thread thread = this.threadFactory.newThread(() -> {
+			// a waiting virtual thread does not hold a platform thread.
+			this.permits.acquireUninterruptibly();
+			try {
+				task.run();
+			}
+			finally {
+				this.permits.release();
+			}
+		});
+		if (thread == null) {
+			throw new TaskRejectedException("Unable to create a virtual thread to run the task");
+		}
+		thread.start();
+	}
+
+	/**
+	 * @return the number of tasks running.
+	 */
+	public int getActiveCount() {
+		return this.maxConcurrency - this.permits.availablePermits();
+	}
+
+	/**
+	 * @return the number of tasks waiting to run.
+	 */
+	public int getQueueLength() {
+		return this.permits.getQueueLength();
+	}
+
+	private static ThreadFactory createVirtualThreadFactory(String threadNamePrefix) {
+		Assert.state(isSupported(), "Virtual threads require Java 21 or later");
+		try {
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Method name = builderType.getMethod("name", String.class, long.class);
+			builder = name.invoke(builder, threadNamePrefix, 0L);
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+		}
+		catch (ReflectiveOperationException exception) {
+			throw new IllegalStateException("Unable to create the virtual thread factory", exception);
+		}
+	}
+}
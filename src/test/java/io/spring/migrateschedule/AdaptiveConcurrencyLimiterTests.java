@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.spring.migrateschedule.service.AdaptiveConcurrencyLimiter;
+import org.cloudfoundry.UnknownCloudFoundryException;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.EmitterProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimiterTests {
+
+	@Test
+	public void testCallsAboveLimitWait() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1);
+		MonoProcessor<String> firstCall = MonoProcessor.create();
+		MonoProcessor<String> first = limiter.limit(firstCall).toProcessor();
+		MonoProcessor<String> second = limiter.limit(Mono.just("second")).toProcessor();
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+		assertThat(limiter.getQueueDepth()).isEqualTo(1);
+		assertThat(second.isTerminated()).isFalse();
+
+		firstCall.onNext("first");
+		assertThat(first.block(Duration.ofSeconds(1))).isEqualTo("first");
+		assertThat(second.block(Duration.ofSeconds(1))).isEqualTo("second");
+		assertThat(limiter.getInFlight()).isEqualTo(0);
+		assertThat(limiter.getQueueDepth()).isEqualTo(0);
+	}
+
+	@Test
+	public void testLimitIncreasesOnSuccessAndDecreasesWhenRateLimited() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 8);
+		limiter.limit(Mono.just("a")).block();
+		limiter.limit(Flux.just("b", "c")).blockLast();
+		assertThat(limiter.getLimit()).isEqualTo(3);
+
+		limiter.limit(Mono.error(new UnknownCloudFoundryException(429))).onErrorResume(e -> Mono.empty()).block();
+		assertThat(limiter.getLimit()).isEqualTo(1);
+		limiter.limit(Mono.error(new IllegalStateException())).onErrorResume(e -> Mono.empty()).block();
+		assertThat(limiter.getLimit()).isEqualTo(1);
+		assertThat(limiter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void testLimitDecreasesOnceForConcurrentRateLimitedCalls() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 8);
+		List<MonoProcessor<String>> calls = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			MonoProcessor<String> call = MonoProcessor.create();
+			calls.add(call);
+			limiter.limit(call).onErrorResume(e -> Mono.empty()).subscribe();
+		}
+		calls.forEach(call -> call.onError(new UnknownCloudFoundryException(429)));
+		assertThat(limiter.getLimit()).isEqualTo(4);
+
+		// a call started after the decrease decreases the limit again.
+		limiter.limit(Mono.error(new UnknownCloudFoundryException(429))).onErrorResume(e -> Mono.empty()).block();
+		assertThat(limiter.getLimit()).isEqualTo(2);
+		assertThat(limiter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void testFluxHoldsItsPermitUntilItTerminates() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1);
+		EmitterProcessor<String> firstCall = EmitterProcessor.create();
+		List<String> first = new ArrayList<>();
+		limiter.limit(firstCall).subscribe(first::add);
+		MonoProcessor<String> second = limiter.limit(Mono.just("second")).toProcessor();
+		firstCall.onNext("a");
+		assertThat(first).containsExactly("a");
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+		assertThat(second.isTerminated()).isFalse();
+
+		firstCall.onComplete();
+		assertThat(second.block(Duration.ofSeconds(1))).isEqualTo("second");
+		assertThat(limiter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void testCancelledCallsReleaseTheirPermit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1);
+		Disposable first = limiter.limit(Mono.never()).subscribe();
+		Disposable second = limiter.limit(Mono.never()).subscribe();
+		assertThat(limiter.getQueueDepth()).isEqualTo(1);
+		second.dispose();
+		assertThat(limiter.getQueueDepth()).isEqualTo(0);
+		first.dispose();
+		assertThat(limiter.getInFlight()).isEqualTo(0);
+		assertThat(limiter.limit(Mono.just("third")).block(Duration.ofSeconds(1))).isEqualTo("third");
+	}
+
+	@Test
+	public void testWrappedApiCallsAreLimited() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1);
+		MonoProcessor<String> pendingCall = MonoProcessor.create();
+		Api api = limiter.wrap(Api.class, new Api() {
+
+			@Override
+			public Mono<String> call() {
+				return pendingCall;
+			}
+
+			@Override
+			public Api group() {
+				return this;
+			}
+		});
+		MonoProcessor<String> first = api.call().toProcessor();
+		MonoProcessor<String> second = api.group().call().toProcessor();
+		assertThat(limiter.getQueueDepth()).isEqualTo(1);
+		pendingCall.onNext("done");
+		assertThat(first.block(Duration.ofSeconds(1))).isEqualTo("done");
+		assertThat(second.block(Duration.ofSeconds(1))).isEqualTo("done");
+	}
+
+	public interface Api {
+
+		Mono<String> call();
+
+		Api group();
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import io.spring.migrateschedule.service.AppResourceCommon;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.deployer.resource.docker.DockerResource;
+import org.springframework.cloud.deployer.resource.maven.MavenProperties;
+import org.springframework.cloud.deployer.resource.maven.MavenResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AppResourceCommonTests {
+
+	private final AppResourceCommon appResourceCommon = new AppResourceCommon(new MavenProperties(),
+			new DefaultResourceLoader());
+
+	@Test
+	public void testResourcesAreResolvedOnce() {
+		Resource resource = this.appResourceCommon.getResource("maven://org.springframework.cloud:spring-cloud-dataflow-scheduler-task-launcher:2.3.0.RELEASE");
+		assertThat(resource).isInstanceOf(MavenResource.class);
+		assertThat(this.appResourceCommon.getResource("maven://org.springframework.cloud:spring-cloud-dataflow-scheduler-task-launcher:2.3.0.RELEASE"))
+				.isSameAs(resource);
+		assertThat(this.appResourceCommon.getResourceVersion(resource)).isEqualTo("2.3.0.RELEASE");
+
+		Resource dockerResource = this.appResourceCommon.getResource("docker:springcloud/scheduler-task-launcher:2.3.0");
+		assertThat(dockerResource).isInstanceOf(DockerResource.class);
+		assertThat(this.appResourceCommon.getResourceVersion(dockerResource)).isEqualTo("2.3.0");
+	}
+
+	@Test
+	public void testUrlResourceVersion() {
+		Resource resource = this.appResourceCommon.getResource("https://repo.spring.io/file-sink-rabbit-1.2.0.BUILD-SNAPSHOT.jar");
+		assertThat(this.appResourceCommon.getResourceVersion(resource)).isEqualTo("1.2.0.BUILD-SNAPSHOT");
+		assertThat(this.appResourceCommon.getResourceVersion(resource)).isEqualTo("1.2.0.BUILD-SNAPSHOT");
+		assertThat(this.appResourceCommon.getResourceWithoutVersion(resource))
+				.isEqualTo("https://repo.spring.io/file-sink-rabbit");
+	}
+
+	@Test
+	public void testInvalidResourcesAreNotCached() {
+		Resource resource = this.appResourceCommon.getResource("https://repo.spring.io/file-sink-rabbit.jar");
+		assertThatThrownBy(() -> this.appResourceCommon.getResourceVersion(resource))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Could not parse version");
+		assertThatThrownBy(() -> this.appResourceCommon.getResourceVersion(resource))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> this.appResourceCommon.getResource("no-scheme"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
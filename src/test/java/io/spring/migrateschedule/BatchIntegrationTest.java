@@ -27,6 +27,7 @@ import io.spring.migrateschedule.service.TaskDefinitionRepository;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
 
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
@@ -58,7 +59,7 @@ import static org.mockito.Mockito.when;
 
 @RunWith(SpringRunner.class)
 @SpringBatchTest
-@SpringBootTest
+@SpringBootTest(properties = "spring.batch.job.enabled=false")
 @EnableAutoConfiguration(exclude = {CloudFoundryDeployerAutoConfiguration.class})
 @ContextConfiguration(classes = { BatchIntegrationTest.BatchTestConfiguration.class, BatchConfiguration.class})
 @TestExecutionListeners({ DependencyInjectionTestExecutionListener.class,
@@ -93,6 +94,7 @@ public class BatchIntegrationTest {
 		assertThat(actualJobExitStatus.getExitCode()).isEqualTo("COMPLETED");
 		final ArgumentCaptor<Scheduler> schedulerArgumentCaptor = ArgumentCaptor.forClass(Scheduler.class);
 		final ArgumentCaptor<ConvertScheduleInfo> convertScheduleInfoArgumentCaptor = ArgumentCaptor.forClass(ConvertScheduleInfo.class);
+		verify(this.migrateScheduleService, times(1)).prefetchScheduleMetadata(any());
 		verify(this.migrateScheduleService, times(1)).enrichScheduleMetadata(convertScheduleInfoArgumentCaptor.capture());
 		verify(this.migrateScheduleService, times(1)).migrateSchedule(schedulerArgumentCaptor.capture(), convertScheduleInfoArgumentCaptor.capture());
 	}
@@ -112,7 +114,7 @@ public class BatchIntegrationTest {
 			convertScheduleInfo.setTaskDefinitionName(DEFAULT_TASK_DEFINITION_NAME);
 			convertScheduleInfo.setScheduleProperties(new HashMap<>());
 			convertScheduleInfo.setRegisteredAppName(DEFAULT_APP_NAME);
-			when(migrateScheduleService.scheduleInfoList()).thenReturn(Collections.singletonList(convertScheduleInfo));
+			when(migrateScheduleService.scheduleInfoPages()).thenReturn(Flux.just(Collections.singletonList(convertScheduleInfo)));
 			when(migrateScheduleService.enrichScheduleMetadata(any())).thenReturn(convertScheduleInfo);
 			return migrateScheduleService;
 		}
@@ -17,29 +17,37 @@
 package io.spring.migrateschedule;
 
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.pivotal.scheduler.SchedulerClient;
 import io.spring.migrateschedule.service.ConvertScheduleInfo;
 import io.spring.migrateschedule.service.ConverterProperties;
+import io.spring.migrateschedule.service.MigrationMetrics;
 import io.spring.migrateschedule.service.CFMigrateSchedulerService;
 import io.spring.migrateschedule.service.TaskDefinitionRepository;
 import org.cloudfoundry.operations.CloudFoundryOperations;
 import org.cloudfoundry.operations.applications.ApplicationEnvironments;
 import org.cloudfoundry.operations.applications.GetApplicationEnvironmentsRequest;
+import org.cloudfoundry.operations.spaces.Spaces;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.dataflow.core.TaskDefinition;
 import org.springframework.cloud.deployer.spi.cloudfoundry.CloudFoundryConnectionProperties;
 import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
 import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerException;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -69,7 +77,7 @@ public class CFMigrateScheduleConfigurationTests {
 		this.cfConvertSchedulerService = new CFMigrateSchedulerService(this.cloudFoundryOperations,
 				this.schedulerClient,
 				this.cloudFoundryConnectionProperties, this.converterProperties,
-				this.taskDefinitionRepository) ;
+				this.taskDefinitionRepository, new MigrationMetrics()) ;
 
 	}
 
@@ -118,6 +126,49 @@ public class CFMigrateScheduleConfigurationTests {
 	}
 
 
+	@Test
+	public void testPrefetchRetrievesEachEnvironmentOnce() {
+		CountingApplication application = new CountingApplication();
+		Mockito.when(cloudFoundryOperations.applications()).thenReturn(application);
+		TaskDefinition taskDefinition = TaskDefinition.TaskDefinitionBuilder
+				.from(new TaskDefinition("fooTask", "foo"))
+				.setTaskName(DEFAULT_TASK_DEFINITION_NAME)
+				.setRegisteredAppName(DEFAULT_APP_NAME)
+				.build();
+		Mockito.when(this.taskDefinitionRepository.findByTaskName(Mockito.any())).thenReturn(taskDefinition);
+		List<ConvertScheduleInfo> scheduleInfos = Arrays.asList(createConvertScheduleInfo(DEFAULT_SCHEDULE_NAME),
+				createConvertScheduleInfo(DEFAULT_SCHEDULE_NAME + "2"));
+		this.cfConvertSchedulerService.prefetchScheduleMetadata(scheduleInfos);
+		for (ConvertScheduleInfo scheduleInfo : scheduleInfos) {
+			this.cfConvertSchedulerService.enrichScheduleMetadata(scheduleInfo);
+			assertThat(scheduleInfo.getAppProperties().get("tasklauncher.app.defaultAppName.foo")).isEqualTo("bar");
+		}
+		assertThat(application.requestCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testFailedEnvironmentIsNotCached() {
+		FailingOnceApplication application = new FailingOnceApplication();
+		Mockito.when(cloudFoundryOperations.applications()).thenReturn(application);
+		ConvertScheduleInfo scheduleInfo = createConvertScheduleInfo(DEFAULT_SCHEDULE_NAME);
+		assertThrows(IllegalStateException.class, () -> this.cfConvertSchedulerService.getScheduleEnvironment(scheduleInfo));
+		assertThat(this.cfConvertSchedulerService.getScheduleEnvironment(scheduleInfo).get("SPRING_APPLICATION_JSON"))
+				.isEqualTo("{\"foo\":\"bar\"}");
+		assertThat(this.cfConvertSchedulerService.getScheduleEnvironment(scheduleInfo).get("SPRING_APPLICATION_JSON"))
+				.isEqualTo("{\"foo\":\"bar\"}");
+		assertThat(application.requestCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void testFailedSpaceLookupIsNotCached() {
+		Spaces spaces = Mockito.mock(Spaces.class);
+		Mockito.when(spaces.list()).thenReturn(Flux.error(new IllegalStateException("unavailable")), Flux.empty());
+		Mockito.when(this.cloudFoundryOperations.spaces()).thenReturn(spaces);
+		assertThrows(IllegalStateException.class, () -> this.cfConvertSchedulerService.scheduleInfoPages().blockLast());
+		assertThrows(SchedulerException.class, () -> this.cfConvertSchedulerService.scheduleInfoPages().blockLast());
+		verify(spaces, times(2)).list();
+	}
+
 	@Test
 	public void testMigrate() {
 		ConvertScheduleInfo convertScheduleInfo = createFoundationConvertScheduleInfo();
@@ -130,6 +181,45 @@ public class CFMigrateScheduleConfigurationTests {
 		assertThat(scheduleNameArg.getValue()).isEqualTo(DEFAULT_SCHEDULE_NAME);
 	}
 
+	@Test
+	public void testRetriedMigrateOnlyUnschedules() {
+		ConvertScheduleInfo convertScheduleInfo = createFoundationConvertScheduleInfo();
+		Mockito.doThrow(new IllegalStateException("unschedule failed")).doNothing()
+				.when(this.scheduler).unschedule(DEFAULT_SCHEDULE_NAME);
+		assertThrows(IllegalStateException.class,
+				() -> this.cfConvertSchedulerService.migrateSchedule(this.scheduler, convertScheduleInfo));
+		this.cfConvertSchedulerService.migrateSchedule(this.scheduler, convertScheduleInfo);
+		verify(this.scheduler, times(1)).schedule(any());
+		verify(this.scheduler, times(2)).unschedule(DEFAULT_SCHEDULE_NAME);
+	}
+
+	@Test
+	public void testTaskLauncherResourceResolvedOnce() {
+		this.cfConvertSchedulerService.migrateSchedule(this.scheduler, createFoundationConvertScheduleInfo());
+		this.cfConvertSchedulerService.migrateSchedule(this.scheduler, createFoundationConvertScheduleInfo());
+		final ArgumentCaptor<ScheduleRequest> scheduleRequestArgument = ArgumentCaptor.forClass(ScheduleRequest.class);
+		verify(this.scheduler, times(2)).schedule(scheduleRequestArgument.capture());
+		assertThat(scheduleRequestArgument.getAllValues().get(0).getResource())
+				.isSameAs(scheduleRequestArgument.getAllValues().get(1).getResource());
+		assertThat(scheduleRequestArgument.getAllValues().get(0).getResource())
+				.isSameAs(this.cfConvertSchedulerService.resolveTaskLauncherResource());
+	}
+
+	@Test
+	public void testInvalidTaskLauncherUrl() {
+		this.converterProperties.setSchedulerTaskLauncherUrl("maven://invalid url");
+		assertThrows(IllegalStateException.class, () -> this.cfConvertSchedulerService.resolveTaskLauncherResource());
+	}
+
+	private ConvertScheduleInfo createConvertScheduleInfo(String scheduleName) {
+		ConvertScheduleInfo convertScheduleInfo = new ConvertScheduleInfo();
+		convertScheduleInfo.setScheduleName(scheduleName);
+		convertScheduleInfo.setTaskDefinitionName(DEFAULT_TASK_DEFINITION_NAME);
+		convertScheduleInfo.setScheduleProperties(new HashMap<>());
+		convertScheduleInfo.setRegisteredAppName(DEFAULT_APP_NAME);
+		return convertScheduleInfo;
+	}
+
 	private ConvertScheduleInfo createFoundationConvertScheduleInfo() {
 		ConvertScheduleInfo convertScheduleInfo = new ConvertScheduleInfo();
 		convertScheduleInfo.setScheduleName(DEFAULT_SCHEDULE_NAME);
@@ -154,6 +244,29 @@ public class CFMigrateScheduleConfigurationTests {
 			return Mono.just(ApplicationEnvironments.builder().userProvided("SPRING_APPLICATION_JSON", "{\"foo\":\"bar\"}").build());
 		}
 	}
+	public static class CountingApplication extends SinglePropertyApplication {
+
+		private final AtomicInteger requestCount = new AtomicInteger();
+
+		@Override
+		public Mono<ApplicationEnvironments> getEnvironments(GetApplicationEnvironmentsRequest getApplicationEnvironmentsRequest) {
+			return super.getEnvironments(getApplicationEnvironmentsRequest)
+					.doOnSubscribe(subscription -> this.requestCount.incrementAndGet());
+		}
+	}
+
+	public static class FailingOnceApplication extends SinglePropertyApplication {
+
+		private final AtomicInteger requestCount = new AtomicInteger();
+
+		@Override
+		public Mono<ApplicationEnvironments> getEnvironments(GetApplicationEnvironmentsRequest getApplicationEnvironmentsRequest) {
+			return Mono.defer(() -> (this.requestCount.incrementAndGet() == 1) ?
+					Mono.error(new IllegalStateException("unavailable")) :
+					super.getEnvironments(getApplicationEnvironmentsRequest));
+		}
+	}
+
 	public static class NoPropertyApplication extends AbstractApplications {
 		@Override
 		public Mono<ApplicationEnvironments> getEnvironments(GetApplicationEnvironmentsRequest getApplicationEnvironmentsRequest) {
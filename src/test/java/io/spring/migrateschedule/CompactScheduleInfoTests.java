@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import io.spring.migrateschedule.service.CompactProperties;
+import io.spring.migrateschedule.service.CompactScheduleInfo;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompactScheduleInfoTests {
+
+	@Test
+	public void testRoundTrip() {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName("schedule");
+		scheduleInfo.setTaskDefinitionName("timestamp");
+		scheduleInfo.setRegisteredAppName("timestamp-app");
+		scheduleInfo.getScheduleProperties().put("spring.cloud.scheduler.cron.expression", "0 0 * * *");
+		scheduleInfo.getScheduleProperties().put("SPRING_APPLICATION_JSON", "{}");
+		scheduleInfo.getAppProperties().put("foo", "bar");
+		scheduleInfo.setCommandLineArgs(Arrays.asList("--foo=bar", "--baz=qux"));
+
+		CompactScheduleInfo compactScheduleInfo = CompactScheduleInfo.from(scheduleInfo, CompactProperties.deduplicator());
+		ConvertScheduleInfo result = compactScheduleInfo.toScheduleInfo();
+		assertThat(result.getScheduleName()).isEqualTo("schedule");
+		assertThat(result.getTaskDefinitionName()).isEqualTo("timestamp");
+		assertThat(result.getRegisteredAppName()).isEqualTo("timestamp-app");
+		assertThat(result.getMigratedScheduleName()).isNull();
+		assertThat(result.getScheduleProperties()).isEqualTo(scheduleInfo.getScheduleProperties());
+		assertThat(result.getScheduleProperties().getSchedulerProperties())
+				.containsOnlyKeys("spring.cloud.scheduler.cron.expression");
+		assertThat(result.getAppProperties()).isEqualTo(scheduleInfo.getAppProperties());
+		assertThat(result.getCommandLineArgs()).containsExactly("--foo=bar", "--baz=qux");
+		result.getCommandLineArgs().add("--spring.cloud.scheduler.task.launcher.taskName=timestamp");
+		assertThat(compactScheduleInfo.getCommandLineArgs()).hasSize(2);
+	}
+
+	@Test
+	public void testKeysAreDeduplicated() {
+		UnaryOperator<String> deduplicator = CompactProperties.deduplicator();
+		CompactProperties first = CompactProperties.of(properties(), deduplicator);
+		CompactProperties second = CompactProperties.of(properties(), deduplicator);
+		assertThat(first).isEqualTo(second).containsEntry("b", "2").doesNotContainKey("c");
+		assertThat(first.keySet().iterator().next()).isSameAs(second.keySet().iterator().next());
+		assertThatThrownBy(() -> first.put("c", "3")).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	private static Map<String, String> properties() {
+		Map<String, String> result = new HashMap<>();
+		result.put(new String("a"), "1");
+		result.put(new String("b"), "2");
+		return result;
+	}
+}
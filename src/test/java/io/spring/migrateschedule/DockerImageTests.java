@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import io.spring.migrateschedule.service.DockerImage;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DockerImageTests {
+
+	@Test
+	public void testRepositoryOnly() {
+		DockerImage dockerImage = DockerImage.fromImageName("alpine");
+		assertThat(dockerImage.getHost()).isNull();
+		assertThat(dockerImage.getNamespace()).isNull();
+		assertThat(dockerImage.getRepository()).isEqualTo("alpine");
+		assertThat(dockerImage.getTag()).isEqualTo(DockerImage.DEFAULT_TAG);
+		assertThat(dockerImage.getNamespaceAndRepo()).isEqualTo("library/alpine");
+	}
+
+	@Test
+	public void testNamespaceOrHost() {
+		DockerImage dockerImage = DockerImage.fromImageName("springcloud/task-launcher:2.3.0");
+		assertThat(dockerImage.getHost()).isNull();
+		assertThat(dockerImage.getNamespace()).isEqualTo("springcloud");
+		assertThat(dockerImage.getRepository()).isEqualTo("task-launcher");
+		assertThat(dockerImage.getTag()).isEqualTo("2.3.0");
+
+		dockerImage = DockerImage.fromImageName("registry.local:5000/task-launcher");
+		assertThat(dockerImage.getHost()).isEqualTo("registry.local:5000");
+		assertThat(dockerImage.getNamespace()).isNull();
+		assertThat(dockerImage.getRepository()).isEqualTo("task-launcher");
+		assertThat(dockerImage.getTag()).isEqualTo(DockerImage.DEFAULT_TAG);
+	}
+
+	@Test
+	public void testHostNamespaceRepositoryTagAndDigest() {
+		DockerImage dockerImage = DockerImage.fromImageName("registry.local:5000/path/to/task-launcher:2.3.0@sha256:abc123");
+		assertThat(dockerImage.getHost()).isEqualTo("registry.local:5000");
+		assertThat(dockerImage.getNamespace()).isEqualTo("path/to");
+		assertThat(dockerImage.getRepository()).isEqualTo("task-launcher");
+		assertThat(dockerImage.getTag()).isEqualTo("2.3.0");
+		assertThat(dockerImage.getDigest()).isEqualTo("sha256:abc123");
+		assertThat(dockerImage.toString()).isEqualTo("registry.local:5000/path/to/task-launcher:2.3.0@sha256:abc123");
+
+		dockerImage = DockerImage.fromImageName("springcloud/task-launcher@sha256:abc123");
+		assertThat(dockerImage.getRepository()).isEqualTo("task-launcher");
+		assertThat(dockerImage.getTag()).isNull();
+		assertThat(dockerImage.getDigest()).isEqualTo("sha256:abc123");
+	}
+
+	@Test
+	public void testInvalidImageNames() {
+		assertThatThrownBy(() -> DockerImage.fromImageName("")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> DockerImage.fromImageName("springcloud/")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> DockerImage.fromImageName("task-launcher:2.3.0:1")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> DockerImage.fromImageName("task-launcher@")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.List;
+
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.api.model.batch.CronJob;
+import io.fabric8.kubernetes.api.model.batch.CronJobBuilder;
+import io.fabric8.kubernetes.api.model.batch.CronJobListBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.ConverterProperties;
+import io.spring.migrateschedule.service.KubernetesMigrateSchedulerService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.TaskDefinitionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.mockito.Mockito;
+
+import org.springframework.cloud.dataflow.core.TaskDefinition;
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerPropertyKeys;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KubernetesMigrateSchedulerServiceTests {
+
+	public static final String DEFAULT_TASK_DEFINITION_NAME = "defaultTaskDefinitionName";
+
+	public static final String DEFAULT_APP_NAME = "defaultAppName";
+
+	private static final String CRONJOBS_PATH = "/apis/batch/v1beta1/namespaces/test/cronjobs?labelSelector=spring-cronjob-id%2C%21spring-cronjob-migrated&limit=2";
+
+	private KubernetesMockServer server;
+
+	private TaskDefinitionRepository taskDefinitionRepository;
+
+	private KubernetesMigrateSchedulerService migrateSchedulerService;
+
+	@BeforeEach
+	public void setup() {
+		this.server = new KubernetesMockServer(false);
+		this.server.init();
+		ConverterProperties converterProperties = new ConverterProperties();
+		converterProperties.setKubernetesPageSize(2);
+		this.taskDefinitionRepository = Mockito.mock(TaskDefinitionRepository.class);
+		this.migrateSchedulerService = new KubernetesMigrateSchedulerService(this.server.createClient(),
+				converterProperties, this.taskDefinitionRepository, new MigrationMetrics());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.server.destroy();
+	}
+
+	@Test
+	public void testPagedScheduleInfo() {
+		this.server.expect().get().withPath(CRONJOBS_PATH)
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().withContinue("page2").endMetadata()
+						.withItems(createCronJob("schedule1"), createCronJob("schedule2"))
+						.build())
+				.once();
+		this.server.expect().get().withPath(CRONJOBS_PATH + "&continue=page2")
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().endMetadata()
+						.withItems(createCronJob("schedule3"))
+						.build())
+				.once();
+
+		List<List<ConvertScheduleInfo>> pages = this.migrateSchedulerService.scheduleInfoPages().collectList().block();
+		assertThat(pages).hasSize(2);
+		assertThat(pages.get(0)).hasSize(2);
+		ConvertScheduleInfo scheduleInfo = pages.get(0).get(0);
+		assertThat(scheduleInfo.getScheduleName()).isEqualTo("schedule1");
+		assertThat(scheduleInfo.getTaskDefinitionName()).isEqualTo(DEFAULT_TASK_DEFINITION_NAME);
+		assertThat(scheduleInfo.getCommandLineArgs()).containsExactly("--foo=bar");
+		assertThat(scheduleInfo.getScheduleProperties().get(SchedulerPropertyKeys.CRON_EXPRESSION)).isEqualTo("*/5 * * * *");
+		assertThat(scheduleInfo.getScheduleProperties().get("SPRING_APPLICATION_JSON")).isEqualTo("{\"baz\":\"qux\"}");
+
+		assertThat(pages.get(1)).hasSize(1);
+		assertThat(this.server.getRequestCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testPagesRetrievedOnDemand() {
+		this.server.expect().get().withPath(CRONJOBS_PATH)
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().withContinue("page2").endMetadata()
+						.withItems(createCronJob("schedule1"), createCronJob("schedule2"))
+						.build())
+				.once();
+		this.server.expect().get().withPath(CRONJOBS_PATH + "&continue=page2")
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().endMetadata()
+						.withItems(createCronJob("schedule3"))
+						.build())
+				.once();
+
+		assertThat(this.migrateSchedulerService.scheduleInfoPages().blockFirst()).hasSize(2);
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testListAgainWhenContinueTokenExpires() {
+		this.server.expect().get().withPath(CRONJOBS_PATH)
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().withContinue("expired").endMetadata()
+						.withItems(createCronJob("schedule1"), createCronJob("schedule2"))
+						.build())
+				.once();
+		this.server.expect().get().withPath(CRONJOBS_PATH + "&continue=expired")
+				.andReturn(410, new StatusBuilder().withCode(410).withReason("Expired").build())
+				.once();
+		this.server.expect().get().withPath(CRONJOBS_PATH)
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().withContinue("page2").endMetadata()
+						.withItems(createCronJob("schedule1"), createCronJob("schedule2"))
+						.build())
+				.once();
+		this.server.expect().get().withPath(CRONJOBS_PATH + "&continue=page2")
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().endMetadata()
+						.withItems(createCronJob("schedule3"))
+						.build())
+				.once();
+
+		List<ConvertScheduleInfo> scheduleInfos = this.migrateSchedulerService.scheduleInfoPages()
+				.flatMapIterable(page -> page).collectList().block();
+		// the first page is emitted again once the CronJobs are listed again.
+		assertThat(scheduleInfos).extracting(ConvertScheduleInfo::getScheduleName)
+				.containsExactly("schedule1", "schedule2", "schedule1", "schedule2", "schedule3");
+		assertThat(this.server.getRequestCount()).isEqualTo(4);
+	}
+
+	@Test
+	public void testMarkMigratedSchedule() throws Exception {
+		this.server.expect().patch().withPath("/apis/batch/v1beta1/namespaces/test/cronjobs/schedule1-scdf")
+				.andReturn(200, createCronJob("schedule1-scdf"))
+				.once();
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName("schedule1");
+		scheduleInfo.setMigratedScheduleName("schedule1-scdf");
+		this.migrateSchedulerService.markMigratedSchedule(scheduleInfo);
+		RecordedRequest request = this.server.takeRequest();
+		assertThat(request.getMethod()).isEqualTo("PATCH");
+		assertThat(request.getBody().readUtf8()).isEqualTo("{\"metadata\":{\"labels\":{\"spring-cronjob-migrated\":\"true\"}}}");
+	}
+
+	@Test
+	public void testEnrichment() {
+		TaskDefinition taskDefinition = TaskDefinition.TaskDefinitionBuilder
+				.from(new TaskDefinition("fooTask", "foo"))
+				.setTaskName(DEFAULT_TASK_DEFINITION_NAME)
+				.setRegisteredAppName(DEFAULT_APP_NAME)
+				.build();
+		Mockito.when(this.taskDefinitionRepository.findByTaskName(DEFAULT_TASK_DEFINITION_NAME)).thenReturn(taskDefinition);
+		this.server.expect().get().withPath(CRONJOBS_PATH)
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().endMetadata()
+						.withItems(createCronJob("schedule1"))
+						.build())
+				.once();
+		ConvertScheduleInfo scheduleInfo = this.migrateSchedulerService.enrichScheduleMetadata(
+				this.migrateSchedulerService.scheduleInfoPages().blockFirst().get(0));
+		assertThat(scheduleInfo.getAppProperties().get("tasklauncher.app.defaultAppName.baz")).isEqualTo("qux");
+		assertThat(scheduleInfo.getAppProperties().get("spring.cloud.dataflow.client.serverUri")).isEqualTo("http://localhost:9393");
+		assertThat(scheduleInfo.getCommandLineArgs()).containsExactly("cmdarg.tasklauncher.--foo=bar",
+				"--spring.cloud.scheduler.task.launcher.taskName=defaultTaskDefinitionName");
+	}
+
+	@Test
+	public void testNoTaskDefinition() {
+		this.server.expect().get().withPath(CRONJOBS_PATH)
+				.andReturn(200, new CronJobListBuilder()
+						.withNewMetadata().endMetadata()
+						.withItems(createCronJob("schedule1"))
+						.build())
+				.once();
+		ConvertScheduleInfo scheduleInfo = this.migrateSchedulerService.scheduleInfoPages().blockFirst().get(0);
+		assertThrows(IllegalStateException.class, () -> this.migrateSchedulerService.enrichScheduleMetadata(scheduleInfo));
+	}
+
+	private CronJob createCronJob(String name) {
+		return new CronJobBuilder()
+				.withNewMetadata()
+				.withName(name)
+				.addToLabels("spring-cronjob-id", DEFAULT_TASK_DEFINITION_NAME)
+				.endMetadata()
+				.withNewSpec()
+				.withSchedule("*/5 * * * *")
+				.withNewJobTemplate()
+				.withNewSpec()
+				.withNewTemplate()
+				.withNewSpec()
+				.addNewContainer()
+				.withName(name)
+				.withImage("springcloud/timestamp-task:latest")
+				.withArgs("--foo=bar")
+				.addNewEnv().withName("SPRING_APPLICATION_JSON").withValue("{\"baz\":\"qux\"}").endEnv()
+				.endContainer()
+				.endSpec()
+				.endTemplate()
+				.endSpec()
+				.endJobTemplate()
+				.endSpec()
+				.build();
+	}
+}
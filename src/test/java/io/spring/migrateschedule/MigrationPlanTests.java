@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.spring.migrateschedule.batch.MigrationPlanReader;
+import io.spring.migrateschedule.batch.MigrationPlanWriter;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.cloud.deployer.spi.core.AppDefinition;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+public class MigrationPlanTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testPlanRoundTrip() throws Exception {
+		Map<String, String> schedulerProperties = Collections.singletonMap("spring.cloud.scheduler.cron.expression", "0 0 * * *");
+		Map<String, String> appProperties = Collections.singletonMap("app.timestamp.format", "yyyy");
+		MigrateScheduleService migrateScheduleService = Mockito.mock(MigrateScheduleService.class);
+		ScheduleRequest scheduleRequest = new ScheduleRequest(new AppDefinition("mySchedule-scdf-myTask", appProperties),
+				schedulerProperties, new HashMap<>(), Collections.singletonList("--foo=bar"),
+				"mySchedule-scdf-myTask", new ByteArrayResource(new byte[0]));
+		Mockito.when(migrateScheduleService.createScheduleRequest(any())).thenReturn(scheduleRequest);
+		String planFile = this.tempDir.resolve("plan.jsonl").toString();
+		MigrationMetrics migrationMetrics = new MigrationMetrics(new SimpleMeterRegistry());
+
+		MigrationPlanWriter migrationPlanWriter = new MigrationPlanWriter(migrateScheduleService, planFile);
+		migrationPlanWriter.setMigrationMetrics(migrationMetrics);
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName("mySchedule");
+		scheduleInfo.setTaskDefinitionName("myTask");
+		migrationPlanWriter.beforeJob(null);
+		migrationPlanWriter.write(Collections.singletonList(scheduleInfo));
+		migrationPlanWriter.afterJob(null);
+		assertThat(migrationMetrics.getMeterRegistry().get(MigrationMetrics.SCHEDULES)
+				.tag(MigrationMetrics.STATE_TAG, MigrationMetrics.PLANNED).counter().count()).isEqualTo(1);
+
+		MigrationPlanReader migrationPlanReader = new MigrationPlanReader(new FileSystemResource(planFile));
+		migrationPlanReader.open(new ExecutionContext());
+		ConvertScheduleInfo result = migrationPlanReader.read();
+		assertThat(migrationPlanReader.read()).isNull();
+		migrationPlanReader.close();
+
+		assertThat(result.getScheduleName()).isEqualTo("mySchedule");
+		assertThat(result.getMigratedScheduleName()).isEqualTo("mySchedule-scdf-myTask");
+		assertThat(result.getTaskDefinitionName()).isEqualTo("myTask");
+		assertThat(result.getScheduleProperties()).isEqualTo(schedulerProperties);
+		assertThat(result.getAppProperties()).isEqualTo(appProperties);
+		assertThat(result.getCommandLineArgs()).containsExactly("--foo=bar");
+	}
+
+	@Test
+	public void testRestartAppendsToPlan() throws Exception {
+		MigrateScheduleService migrateScheduleService = Mockito.mock(MigrateScheduleService.class);
+		Mockito.when(migrateScheduleService.createScheduleRequest(any())).thenAnswer(invocation -> {
+			ConvertScheduleInfo scheduleInfo = invocation.getArgument(0);
+			return new ScheduleRequest(new AppDefinition(scheduleInfo.getScheduleName(), new HashMap<>()),
+					new HashMap<>(), new HashMap<>(), Collections.emptyList(), scheduleInfo.getScheduleName() + "-scdf-myTask",
+					new ByteArrayResource(new byte[0]));
+		});
+		String planFile = this.tempDir.resolve("plan.jsonl").toString();
+		MigrationPlanWriter migrationPlanWriter = new MigrationPlanWriter(migrateScheduleService, planFile);
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution();
+		migrationPlanWriter.beforeJob(jobExecution);
+		migrationPlanWriter.write(Collections.singletonList(scheduleInfo("a")));
+		migrationPlanWriter.afterJob(jobExecution);
+
+		JobExecution restartedJobExecution = MetaDataInstanceFactory.createJobExecution();
+		restartedJobExecution.setExecutionContext(jobExecution.getExecutionContext());
+		migrationPlanWriter.beforeJob(restartedJobExecution);
+		migrationPlanWriter.write(Collections.singletonList(scheduleInfo("b")));
+		migrationPlanWriter.afterJob(restartedJobExecution);
+		assertThat(Files.readAllLines(Paths.get(planFile))).hasSize(2);
+
+		migrationPlanWriter.beforeJob(MetaDataInstanceFactory.createJobExecution());
+		migrationPlanWriter.afterJob(null);
+		assertThat(Files.readAllLines(Paths.get(planFile))).isEmpty();
+	}
+
+	private ConvertScheduleInfo scheduleInfo(String scheduleName) {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleName);
+		scheduleInfo.setTaskDefinitionName("myTask");
+		return scheduleInfo;
+	}
+}
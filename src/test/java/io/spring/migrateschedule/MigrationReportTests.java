@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.spring.migrateschedule.batch.MigrationReport;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.MigrationPhase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MigrationReportTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testCsvReportIsAppendedTo() throws Exception {
+		Path reportFile = this.tempDir.resolve("report.csv");
+		MigrationReport migrationReport = new MigrationReport(reportFile.toString());
+		ConvertScheduleInfo scheduleInfo = scheduleInfo("a", "taskA");
+		scheduleInfo.addPhaseTime(MigrationPhase.LIST, TimeUnit.MILLISECONDS.toNanos(5));
+		scheduleInfo.addPhaseTime(MigrationPhase.SCHEDULE, TimeUnit.MILLISECONDS.toNanos(20));
+		scheduleInfo.addPhaseTime(MigrationPhase.SCHEDULE, TimeUnit.MILLISECONDS.toNanos(10));
+		migrationReport.report(scheduleInfo, "a-scdf-taskA", MigrationMetrics.MIGRATED, null);
+		migrationReport.afterJob(null);
+
+		MigrationReport restartedReport = new MigrationReport(reportFile.toString());
+		restartedReport.report(scheduleInfo("b", "taskB"), "b-scdf-taskB", MigrationMetrics.FAILED,
+				new IllegalStateException("failed, twice"));
+		restartedReport.afterJob(null);
+
+		List<String> lines = Files.readAllLines(reportFile, StandardCharsets.UTF_8);
+		assertThat(lines).hasSize(3);
+		assertThat(lines.get(0)).isEqualTo("timestamp,scheduleName,migratedScheduleName,taskDefinitionName,state,failure,"
+				+ "listMillis,enrichMillis,scheduleMillis,unscheduleMillis");
+		assertThat(lines.get(1)).endsWith(",a,a-scdf-taskA,taskA,migrated,,5,0,30,0");
+		assertThat(lines.get(2)).endsWith(",b,b-scdf-taskB,taskB,failed,\"java.lang.IllegalStateException: failed, twice\",0,0,0,0");
+	}
+
+	@Test
+	public void testJsonLinesReport() throws Exception {
+		Path reportFile = this.tempDir.resolve("report.jsonl");
+		MigrationReport migrationReport = new MigrationReport(reportFile.toString());
+		ConvertScheduleInfo scheduleInfo = scheduleInfo("a", "taskA");
+		scheduleInfo.addPhaseTime(MigrationPhase.ENRICH, TimeUnit.MILLISECONDS.toNanos(7));
+		migrationReport.report(scheduleInfo, "a-scdf-taskA", MigrationMetrics.MIGRATED, null);
+		migrationReport.afterJob(null);
+
+		List<String> lines = Files.readAllLines(reportFile, StandardCharsets.UTF_8);
+		assertThat(lines).hasSize(1);
+		Map<?, ?> record = new ObjectMapper().readValue(lines.get(0), Map.class);
+		assertThat(record.get("scheduleName")).isEqualTo("a");
+		assertThat(record.get("migratedScheduleName")).isEqualTo("a-scdf-taskA");
+		assertThat(record.get("state")).isEqualTo(MigrationMetrics.MIGRATED);
+		assertThat(record.get("enrichMillis")).isEqualTo(7);
+	}
+
+	@Test
+	public void testNoReport() {
+		MigrationReport migrationReport = new MigrationReport("");
+		migrationReport.report(scheduleInfo("a", "taskA"), null, MigrationMetrics.FAILED, null);
+		migrationReport.afterJob(null);
+		assertThat(this.tempDir.toFile().list()).isEmpty();
+	}
+
+	private ConvertScheduleInfo scheduleInfo(String scheduleName, String taskDefinitionName) {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleName);
+		scheduleInfo.setTaskDefinitionName(taskDefinitionName);
+		return scheduleInfo;
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.spring.migrateschedule.service.PropertyTagger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyTaggerTests {
+
+	private final PropertyTagger propertyTagger = new PropertyTagger("tasklauncher", "http://localhost:9393");
+
+	@Test
+	public void testTagCommandLineArgs() {
+		assertThat(this.propertyTagger.tagCommandLineArgs(Arrays.asList("--foo=bar", "--spring.cloud.task.name=timestamp",
+				"spring.cloud.dataflow.client.serverUri=http://dataflow")))
+				.containsExactly("cmdarg.tasklauncher.--foo=bar", "spring.cloud.dataflow.client.serverUri=http://dataflow");
+	}
+
+	@Test
+	public void testTagProperties() {
+		Map<String, String> appProperties = new HashMap<>();
+		appProperties.put("foo", "bar");
+		appProperties.put("spring.cloud.task.name", "timestamp");
+		appProperties.put("spring.cloud.dataflow.client.serverUri", "http://dataflow");
+		assertThat(this.propertyTagger.tagProperties("timestamp", appProperties, "app."))
+				.hasSize(2)
+				.containsEntry("tasklauncher.app.timestamp.foo", "bar")
+				.containsEntry("spring.cloud.dataflow.client.serverUri", "http://dataflow");
+		assertThat(this.propertyTagger.tagProperties(null, appProperties, "app."))
+				.containsEntry("tasklauncher.app.foo", "bar");
+	}
+
+	@Test
+	public void testTagSchedulerAppProperties() {
+		Map<String, String> appProperties = new HashMap<>();
+		appProperties.put("foo", "bar");
+		appProperties.put("spring.cloud.dataflow.client.serverUri", "http://dataflow");
+		assertThat(this.propertyTagger.tagSchedulerAppProperties("timestamp", appProperties, "app."))
+				.hasSize(2)
+				.containsEntry("tasklauncher.app.timestamp.foo", "bar")
+				.containsEntry("spring.cloud.dataflow.client.serverUri", "http://localhost:9393");
+	}
+}
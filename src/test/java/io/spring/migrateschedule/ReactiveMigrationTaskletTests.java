@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.spring.migrateschedule.batch.ReactiveMigrationTasklet;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.ConverterProperties;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
+import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ReactiveMigrationTaskletTests {
+
+	private Scheduler scheduler;
+
+	private MigrateScheduleService migrateScheduleService;
+
+	private ConverterProperties converterProperties;
+
+	private StepExecution stepExecution;
+
+	@BeforeEach
+	public void setup() {
+		this.scheduler = Mockito.mock(Scheduler.class);
+		this.migrateScheduleService = Mockito.mock(MigrateScheduleService.class);
+		Mockito.when(this.migrateScheduleService.scheduleInfoPages()).thenAnswer(invocation -> Flux.just(
+				Arrays.asList(createConvertScheduleInfo("a"), createConvertScheduleInfo("b")),
+				Arrays.asList(createConvertScheduleInfo("c"), createConvertScheduleInfo("c-scdf"))));
+		Mockito.when(this.migrateScheduleService.isMigratedSchedule(any()))
+				.thenAnswer(invocation -> ((ScheduleInfo) invocation.getArgument(0)).getScheduleName().endsWith("-scdf"));
+		Mockito.when(this.migrateScheduleService.requestEnrichedScheduleInfo(any()))
+				.thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+		Mockito.when(this.migrateScheduleService.getMigratedScheduleName(any()))
+				.thenAnswer(invocation -> ((ScheduleInfo) invocation.getArgument(0)).getScheduleName() + "-scdf");
+		Mockito.when(this.migrateScheduleService.createScheduleRequest(any()))
+				.thenReturn(Mockito.mock(ScheduleRequest.class));
+		this.converterProperties = new ConverterProperties();
+		this.converterProperties.setReactiveCheckpointInterval(2);
+		this.stepExecution = MetaDataInstanceFactory.createStepExecution();
+	}
+
+	@Test
+	public void testMigrateWithCheckpoints() throws Exception {
+		// the new schedule of b was created by an interrupted run.
+		Mockito.when(this.scheduler.list()).thenReturn(
+				new ArrayList<>(Arrays.asList(createConvertScheduleInfo("b"), createConvertScheduleInfo("b-scdf"))));
+		Mockito.doThrow(new IllegalStateException("c failed")).when(this.scheduler).unschedule("c");
+		this.converterProperties.setSkipLimit(1);
+		ReactiveMigrationTasklet tasklet = new ReactiveMigrationTasklet(this.migrateScheduleService, this.scheduler,
+				this.converterProperties);
+		StepContribution contribution = this.stepExecution.createStepContribution();
+
+		List<RepeatStatus> statuses = execute(tasklet, contribution);
+		assertThat(statuses).containsExactly(RepeatStatus.CONTINUABLE, RepeatStatus.FINISHED);
+		verify(this.scheduler, times(2)).schedule(any());
+		verify(this.scheduler).unschedule("a");
+		verify(this.scheduler).unschedule("b");
+		verify(this.scheduler).unschedule("c");
+		// the schedules are listed once, before any of them is migrated.
+		verify(this.migrateScheduleService).scheduleInfoPages();
+		assertThat(contribution.getReadCount()).isEqualTo(3);
+		assertThat(contribution.getWriteCount()).isEqualTo(2);
+		assertThat(contribution.getProcessSkipCount()).isEqualTo(1);
+		assertThat(this.stepExecution.getExecutionContext().getInt("reactive.migrated")).isEqualTo(2);
+		assertThat(this.stepExecution.getExecutionContext().getInt("reactive.failed")).isEqualTo(1);
+	}
+
+	@Test
+	public void testSkipLimitExceeded() {
+		Mockito.when(this.scheduler.list()).thenReturn(new ArrayList<>());
+		Mockito.doThrow(new IllegalStateException("c failed")).when(this.scheduler).unschedule("c");
+		ReactiveMigrationTasklet tasklet = new ReactiveMigrationTasklet(this.migrateScheduleService, this.scheduler,
+				this.converterProperties);
+		StepContribution contribution = this.stepExecution.createStepContribution();
+		assertThatThrownBy(() -> execute(tasklet, contribution))
+				.isInstanceOf(SkipLimitExceededException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+	}
+
+	private List<RepeatStatus> execute(ReactiveMigrationTasklet tasklet, StepContribution contribution) throws Exception {
+		List<RepeatStatus> result = new ArrayList<>();
+		ChunkContext chunkContext = new ChunkContext(new StepContext(this.stepExecution));
+		tasklet.beforeStep(this.stepExecution);
+		try {
+			RepeatStatus status;
+			do {
+				status = tasklet.execute(contribution, chunkContext);
+				result.add(status);
+			}
+			while (status.isContinuable());
+		}
+		finally {
+			tasklet.afterStep(this.stepExecution);
+		}
+		return result;
+	}
+
+	private ConvertScheduleInfo createConvertScheduleInfo(String scheduleName) {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleName);
+		scheduleInfo.setTaskDefinitionName("timestamp");
+		return scheduleInfo;
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import io.spring.migrateschedule.batch.ResumingJobParametersIncrementer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ResumingJobParametersIncrementerTests {
+
+	private static final String JOB_NAME = "importUserJob";
+
+	private JobExplorer jobExplorer;
+
+	private JobRepository jobRepository;
+
+	private JobExecution lastJobExecution;
+
+	private ResumingJobParametersIncrementer incrementer;
+
+	@BeforeEach
+	public void setup() {
+		this.jobExplorer = Mockito.mock(JobExplorer.class);
+		this.jobRepository = Mockito.mock(JobRepository.class);
+		JobInstance jobInstance = new JobInstance(1L, JOB_NAME);
+		JobParameters jobParameters = new JobParametersBuilder().addLong("run.id", 1L).toJobParameters();
+		this.lastJobExecution = new JobExecution(jobInstance, 1L, jobParameters, null);
+		Mockito.when(this.jobExplorer.getLastJobInstance(JOB_NAME)).thenReturn(jobInstance);
+		Mockito.when(this.jobExplorer.getLastJobExecution(jobInstance)).thenReturn(this.lastJobExecution);
+		this.incrementer = new ResumingJobParametersIncrementer(JOB_NAME, this.jobExplorer, this.jobRepository);
+	}
+
+	@Test
+	public void testFailedMigrationIsResumed() {
+		this.lastJobExecution.setStatus(BatchStatus.FAILED);
+		assertThat(this.incrementer.getNext(this.lastJobExecution.getJobParameters()).getLong("run.id")).isEqualTo(1L);
+		verify(this.jobRepository, never()).update(any(JobExecution.class));
+	}
+
+	@Test
+	public void testInterruptedMigrationIsResumed() {
+		this.lastJobExecution.setStatus(BatchStatus.STARTED);
+		StepExecution runningStep = this.lastJobExecution.createStepExecution("step1");
+		runningStep.setId(1L);
+		runningStep.setStatus(BatchStatus.STARTED);
+		StepExecution completedStep = this.lastJobExecution.createStepExecution("step0");
+		completedStep.setId(2L);
+		completedStep.setStatus(BatchStatus.COMPLETED);
+		assertThat(this.incrementer.getNext(this.lastJobExecution.getJobParameters()).getLong("run.id")).isEqualTo(1L);
+		assertThat(this.lastJobExecution.getStatus()).isEqualTo(BatchStatus.FAILED);
+		assertThat(runningStep.getStatus()).isEqualTo(BatchStatus.FAILED);
+		assertThat(completedStep.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+		verify(this.jobRepository).update(runningStep);
+		verify(this.jobRepository, never()).update(completedStep);
+		verify(this.jobRepository).update(this.lastJobExecution);
+	}
+
+	@Test
+	public void testCompletedMigrationStartsNewInstance() {
+		this.lastJobExecution.setStatus(BatchStatus.COMPLETED);
+		assertThat(this.incrementer.getNext(this.lastJobExecution.getJobParameters()).getLong("run.id")).isEqualTo(2L);
+		assertThat(this.lastJobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.ScheduleProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class SchedulePropertiesTests {
+
+	@Test
+	public void testSchedulerPropertiesAreIndexed() {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("spring.cloud.scheduler.cron.expression", "0 0 * * *");
+		properties.put("app.timestamp.format", "yyyy");
+		properties.put("deployer.timestamp.memory", "1g");
+		properties.put("SPRING_APPLICATION_JSON", "{}");
+		ScheduleProperties scheduleProperties = new ScheduleProperties(properties);
+		assertThat(scheduleProperties).isEqualTo(properties);
+		assertThat(scheduleProperties.getSchedulerProperties())
+				.containsOnly(entry("spring.cloud.scheduler.cron.expression", "0 0 * * *"));
+		assertThatThrownBy(() -> scheduleProperties.getSchedulerProperties().put("spring.cloud.scheduler.timezone", "UTC"))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void testSchedulerPropertiesFollowUpdates() {
+		ScheduleProperties scheduleProperties = new ScheduleProperties();
+		Map<String, String> schedulerProperties = scheduleProperties.getSchedulerProperties();
+		assertThat(schedulerProperties).isEmpty();
+		scheduleProperties.put("spring.cloud.scheduler.cron.expression", "0 0 * * *");
+		scheduleProperties.put("spring.cloud.scheduler.timezone", "UTC");
+		scheduleProperties.remove("spring.cloud.scheduler.timezone");
+		assertThat(schedulerProperties).containsOnlyKeys("spring.cloud.scheduler.cron.expression");
+		scheduleProperties.entrySet().iterator().next().setValue("0 1 * * *");
+		assertThat(schedulerProperties).containsEntry("spring.cloud.scheduler.cron.expression", "0 1 * * *");
+		Iterator<Map.Entry<String, String>> iterator = scheduleProperties.entrySet().iterator();
+		iterator.next();
+		iterator.remove();
+		assertThat(scheduleProperties).isEmpty();
+		assertThat(schedulerProperties).isEmpty();
+	}
+
+	@Test
+	public void testConvertScheduleInfoIndexesProperties() {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		Map<String, String> properties = new HashMap<>();
+		properties.put("spring.cloud.scheduler.cron.expression", "0 0 * * *");
+		scheduleInfo.setScheduleProperties(properties);
+		assertThat(scheduleInfo.getScheduleProperties().getSchedulerProperties())
+				.containsEntry("spring.cloud.scheduler.cron.expression", "0 0 * * *");
+	}
+}
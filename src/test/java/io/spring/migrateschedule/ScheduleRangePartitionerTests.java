@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.spring.migrateschedule.batch.ScheduleListing;
+import io.spring.migrateschedule.batch.ScheduleRangePartitioner;
+import io.spring.migrateschedule.batch.SchedulerReader;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import org.springframework.batch.item.ExecutionContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScheduleRangePartitionerTests {
+
+	@Test
+	public void testEachScheduleBelongsToOnePartition() {
+		MigrateScheduleService migrateScheduleService = Mockito.mock(MigrateScheduleService.class);
+		Mockito.when(migrateScheduleService.scheduleInfoPages()).thenReturn(Flux.just(scheduleInfos("a", "b", "c", "d", "e")));
+		Map<String, ExecutionContext> partitions =
+				new TreeMap<>(new ScheduleRangePartitioner(new ScheduleListing(migrateScheduleService)).partition(2));
+		assertThat(partitions).hasSize(2);
+
+		// a restarted partition lists the schedules again, including one created since.
+		Mockito.when(migrateScheduleService.scheduleInfoPages())
+				.thenReturn(Flux.just(scheduleInfos("0", "a", "b", "c", "cc", "d", "e", "f")));
+		List<String> result = new ArrayList<>();
+		for (ExecutionContext executionContext : partitions.values()) {
+			SchedulerReader<ConvertScheduleInfo> reader = new SchedulerReader<>(new ScheduleListing(migrateScheduleService));
+			reader.setAfterScheduleName(executionContext.getString(ScheduleRangePartitioner.AFTER_SCHEDULE_KEY, null));
+			reader.setLastScheduleName(executionContext.getString(ScheduleRangePartitioner.LAST_SCHEDULE_KEY, null));
+			reader.open(new ExecutionContext());
+			ConvertScheduleInfo scheduleInfo;
+			while ((scheduleInfo = (ConvertScheduleInfo) reader.read()) != null) {
+				result.add(scheduleInfo.getScheduleName());
+			}
+		}
+		assertThat(result).containsExactly("0", "a", "b", "c", "cc", "d", "e", "f");
+	}
+
+	@Test
+	public void testNoSchedules() {
+		MigrateScheduleService migrateScheduleService = Mockito.mock(MigrateScheduleService.class);
+		Mockito.when(migrateScheduleService.scheduleInfoPages()).thenReturn(Flux.empty());
+		Map<String, ExecutionContext> partitions =
+				new ScheduleRangePartitioner(new ScheduleListing(migrateScheduleService)).partition(4);
+		assertThat(partitions).hasSize(1);
+		assertThat(partitions.values().iterator().next().isEmpty()).isTrue();
+	}
+
+	private List<ConvertScheduleInfo> scheduleInfos(String... scheduleNames) {
+		List<ConvertScheduleInfo> result = new ArrayList<>();
+		for (String scheduleName : Arrays.asList(scheduleNames)) {
+			ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+			scheduleInfo.setScheduleName(scheduleName);
+			result.add(scheduleInfo);
+		}
+		return result;
+	}
+}
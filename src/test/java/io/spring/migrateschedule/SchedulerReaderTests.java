@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.spring.migrateschedule.batch.ScheduleListing;
+import io.spring.migrateschedule.batch.SchedulerReader;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.UnicastProcessor;
+
+import org.springframework.batch.item.ExecutionContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+public class SchedulerReaderTests {
+
+	private MigrateScheduleService migrateScheduleService;
+
+	@BeforeEach
+	public void setup() {
+		this.migrateScheduleService = Mockito.mock(MigrateScheduleService.class);
+		Mockito.when(this.migrateScheduleService.scheduleInfoPages())
+				.thenReturn(Flux.just(scheduleInfos("c", "a"), scheduleInfos("d", "b")));
+	}
+
+	@Test
+	public void testReadListingInListedOrder() {
+		ScheduleListing scheduleListing = new ScheduleListing(this.migrateScheduleService);
+		SchedulerReader<ConvertScheduleInfo> reader = new SchedulerReader<>(scheduleListing);
+		reader.open(new ExecutionContext());
+		assertThat(readNames(reader)).containsExactly("c", "a", "d", "b");
+		assertThat(readNames(new SchedulerReader<>(scheduleListing))).containsExactly("c", "a", "d", "b");
+		assertThat(scheduleListing.getScheduleNames()).containsExactly("a", "b", "c", "d");
+		verify(this.migrateScheduleService, Mockito.times(1)).scheduleInfoPages();
+	}
+
+	@Test
+	public void testReadFirstPageBeforeListingCompletes() {
+		UnicastProcessor<List<ConvertScheduleInfo>> pages = UnicastProcessor.create();
+		Mockito.when(this.migrateScheduleService.scheduleInfoPages()).thenReturn(pages);
+		SchedulerReader<ConvertScheduleInfo> reader = new SchedulerReader<>(new ScheduleListing(this.migrateScheduleService));
+		reader.open(new ExecutionContext());
+		pages.onNext(scheduleInfos("c", "a"));
+		assertThat(((ConvertScheduleInfo) reader.read()).getScheduleName()).isEqualTo("c");
+		assertThat(((ConvertScheduleInfo) reader.read()).getScheduleName()).isEqualTo("a");
+		// a page listed again is only read once.
+		pages.onNext(scheduleInfos("a", "b"));
+		pages.onComplete();
+		assertThat(readNames(reader)).containsExactly("b");
+	}
+
+	@Test
+	public void testListingFailure() {
+		Mockito.when(this.migrateScheduleService.scheduleInfoPages())
+				.thenReturn(Flux.concat(Flux.just(scheduleInfos("a")), Flux.error(new IllegalStateException("unavailable"))));
+		SchedulerReader<ConvertScheduleInfo> reader = new SchedulerReader<>(new ScheduleListing(this.migrateScheduleService));
+		reader.open(new ExecutionContext());
+		assertThat(((ConvertScheduleInfo) reader.read()).getScheduleName()).isEqualTo("a");
+		assertThatThrownBy(reader::read).isInstanceOf(IllegalStateException.class).hasMessage("unavailable");
+	}
+
+	@Test
+	public void testRestartAfterLastCommittedSchedule() {
+		SchedulerReader<ConvertScheduleInfo> reader = new SchedulerReader<>(new ScheduleListing(this.migrateScheduleService));
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		reader.read();
+		reader.read();
+		reader.update(executionContext);
+		reader.close();
+
+		// nothing was migrated, the schedules are listed again in the same order.
+		SchedulerReader<ConvertScheduleInfo> restartedReader =
+				new SchedulerReader<>(new ScheduleListing(this.migrateScheduleService));
+		restartedReader.open(executionContext);
+		assertThat(readNames(restartedReader)).containsExactly("d", "b");
+	}
+
+	@Test
+	public void testRestartAfterMigratedSchedules() {
+		SchedulerReader<ConvertScheduleInfo> reader = new SchedulerReader<>(new ScheduleListing(this.migrateScheduleService));
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		reader.read();
+		reader.read();
+		reader.update(executionContext);
+		reader.close();
+
+		// c and a were migrated, the listing of the restarted migration shows the new schedules.
+		Mockito.when(this.migrateScheduleService.scheduleInfoPages())
+				.thenReturn(Flux.just(scheduleInfos("a-scdf-task", "c-scdf-task"), scheduleInfos("d", "b")));
+		SchedulerReader<ConvertScheduleInfo> restartedReader =
+				new SchedulerReader<>(new ScheduleListing(this.migrateScheduleService));
+		restartedReader.open(executionContext);
+		// the new schedules are filtered by the processor.
+		assertThat(readNames(restartedReader)).containsExactly("a-scdf-task", "c-scdf-task", "d", "b");
+	}
+
+	@Test
+	public void testReadScheduleRange() {
+		SchedulerReader<ConvertScheduleInfo> reader = new SchedulerReader<>(new ScheduleListing(this.migrateScheduleService));
+		reader.setAfterScheduleName("a");
+		reader.setLastScheduleName("c");
+		reader.open(new ExecutionContext());
+		assertThat(readNames(reader)).containsExactly("c", "b");
+	}
+
+	private List<String> readNames(SchedulerReader<ConvertScheduleInfo> reader) {
+		List<String> result = new ArrayList<>();
+		ConvertScheduleInfo scheduleInfo;
+		while ((scheduleInfo = (ConvertScheduleInfo) reader.read()) != null) {
+			result.add(scheduleInfo.getScheduleName());
+		}
+		return result;
+	}
+
+	private List<ConvertScheduleInfo> scheduleInfos(String... scheduleNames) {
+		List<ConvertScheduleInfo> result = new ArrayList<>();
+		for (String scheduleName : Arrays.asList(scheduleNames)) {
+			ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+			scheduleInfo.setScheduleName(scheduleName);
+			result.add(scheduleInfo);
+		}
+		return result;
+	}
+}
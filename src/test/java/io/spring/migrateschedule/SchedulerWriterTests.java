@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.spring.migrateschedule.batch.SchedulerWriter;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
+import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SchedulerWriterTests {
+
+	private Scheduler scheduler;
+
+	private MigrateScheduleService migrateScheduleService;
+
+	private ThreadPoolTaskExecutor taskExecutor;
+
+	private SchedulerWriter<ConvertScheduleInfo> schedulerWriter;
+
+	@BeforeEach
+	public void setup() {
+		this.scheduler = Mockito.mock(Scheduler.class);
+		this.migrateScheduleService = Mockito.mock(MigrateScheduleService.class);
+		// migrates like the services, creating the new schedule only once.
+		Mockito.doAnswer(invocation -> {
+			ConvertScheduleInfo scheduleInfo = invocation.getArgument(1);
+			if (!scheduleInfo.isMigratedScheduleCreated()) {
+				this.scheduler.schedule(Mockito.mock(ScheduleRequest.class));
+				scheduleInfo.setMigratedScheduleCreated(true);
+			}
+			this.scheduler.unschedule(scheduleInfo.getScheduleName());
+			return null;
+		}).when(this.migrateScheduleService).migrateSchedule(any(), any());
+		this.taskExecutor = new ThreadPoolTaskExecutor();
+		this.taskExecutor.setCorePoolSize(4);
+		this.taskExecutor.initialize();
+		this.schedulerWriter = new SchedulerWriter<>();
+		this.schedulerWriter.setScheduler(this.scheduler);
+		this.schedulerWriter.setScheduleService(this.migrateScheduleService);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.taskExecutor.shutdown();
+	}
+
+	@Test
+	public void testConcurrentWrite() {
+		this.schedulerWriter.setTaskExecutor(this.taskExecutor);
+		List<ConvertScheduleInfo> chunk = Arrays.asList(createConvertScheduleInfo("a"),
+				createConvertScheduleInfo("b"), createConvertScheduleInfo("c"));
+		this.schedulerWriter.write(chunk);
+		verify(this.scheduler, times(3)).schedule(any());
+		verify(this.scheduler).unschedule("a");
+		verify(this.scheduler).unschedule("b");
+		verify(this.scheduler).unschedule("c");
+		verify(this.migrateScheduleService, times(3)).migrateSchedule(any(), any());
+	}
+
+	@Test
+	public void testConcurrentWriteRetriesOnlyFailedSchedules() {
+		this.schedulerWriter.setTaskExecutor(this.taskExecutor);
+		Mockito.doThrow(new IllegalStateException("b failed")).doNothing().when(this.scheduler).unschedule("b");
+		Mockito.doThrow(new IllegalStateException("c failed")).when(this.scheduler).unschedule("c");
+		List<ConvertScheduleInfo> chunk = Arrays.asList(createConvertScheduleInfo("a"),
+				createConvertScheduleInfo("b"), createConvertScheduleInfo("c"));
+		assertThatThrownBy(() -> this.schedulerWriter.write(chunk))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("b failed")
+				.satisfies(exception -> assertThat(exception.getSuppressed()).hasSize(1));
+		verify(this.scheduler, times(3)).schedule(any());
+
+		Mockito.doNothing().when(this.scheduler).unschedule("c");
+		this.schedulerWriter.write(chunk);
+		// the new schedules already exist so only the originals are removed again.
+		verify(this.scheduler, times(3)).schedule(any());
+		verify(this.scheduler, times(1)).unschedule("a");
+		verify(this.scheduler, times(2)).unschedule("b");
+		verify(this.scheduler, times(2)).unschedule("c");
+	}
+
+	@Test
+	public void testMetrics() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		this.schedulerWriter.setMigrationMetrics(new MigrationMetrics(meterRegistry));
+		this.schedulerWriter.setTaskExecutor(this.taskExecutor);
+		Mockito.doThrow(new IllegalStateException("b failed")).when(this.scheduler).unschedule("b");
+		List<ConvertScheduleInfo> chunk = Arrays.asList(createConvertScheduleInfo("a"), createConvertScheduleInfo("b"));
+		assertThatThrownBy(() -> this.schedulerWriter.write(chunk)).isInstanceOf(IllegalStateException.class);
+		// the retried chunk fails again for the same schedule.
+		assertThatThrownBy(() -> this.schedulerWriter.write(chunk)).isInstanceOf(IllegalStateException.class);
+		assertThat(meterRegistry.get(MigrationMetrics.SCHEDULES).tag(MigrationMetrics.STATE_TAG, MigrationMetrics.MIGRATED)
+				.counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get(MigrationMetrics.SCHEDULES).tag(MigrationMetrics.STATE_TAG, MigrationMetrics.FAILED)
+				.counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void testSequentialWriteSkipsMigratedSchedules() {
+		ConvertScheduleInfo scheduleInfo = createConvertScheduleInfo("a");
+		this.schedulerWriter.write(Arrays.asList(scheduleInfo));
+		this.schedulerWriter.write(Arrays.asList(scheduleInfo));
+		verify(this.migrateScheduleService, times(1)).migrateSchedule(this.scheduler, scheduleInfo);
+	}
+
+	@Test
+	public void testWriteSkipsSchedulesMigratedByPreviousRun() {
+		Mockito.when(this.migrateScheduleService.getMigratedScheduleName(any()))
+				.thenAnswer(invocation -> ((ConvertScheduleInfo) invocation.getArgument(0)).getScheduleName() + "-scdf");
+		Mockito.when(this.scheduler.list()).thenReturn(Arrays.asList(scheduleInfo("a-scdf"), scheduleInfo("b"),
+				scheduleInfo("b-scdf"), scheduleInfo("c")));
+		ConvertScheduleInfo b = createConvertScheduleInfo("b");
+		ConvertScheduleInfo c = createConvertScheduleInfo("c");
+		this.schedulerWriter.write(Arrays.asList(createConvertScheduleInfo("a"), b));
+		this.schedulerWriter.write(Arrays.asList(c));
+		verify(this.scheduler, times(1)).list();
+		verify(this.migrateScheduleService, times(2)).migrateSchedule(any(), any());
+		// the new schedule of b exists, only the original is removed.
+		verify(this.migrateScheduleService).migrateSchedule(this.scheduler, b);
+		verify(this.migrateScheduleService).migrateSchedule(this.scheduler, c);
+		verify(this.scheduler, times(1)).schedule(any());
+		verify(this.scheduler, times(0)).unschedule("a");
+		verify(this.scheduler, times(1)).unschedule("b");
+		verify(this.scheduler, times(1)).unschedule("c");
+	}
+
+	private ScheduleInfo scheduleInfo(String scheduleName) {
+		ScheduleInfo scheduleInfo = new ScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleName);
+		return scheduleInfo;
+	}
+
+	private ConvertScheduleInfo createConvertScheduleInfo(String scheduleName) {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleName);
+		return scheduleInfo;
+	}
+}
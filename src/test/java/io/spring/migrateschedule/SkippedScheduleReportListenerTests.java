@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import io.spring.migrateschedule.batch.SkippedScheduleReportListener;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SkippedScheduleReportListenerTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testSkippedSchedulesAreAppendedToReport() throws Exception {
+		Path reportFile = this.tempDir.resolve("skipped.csv");
+		SkippedScheduleReportListener listener = new SkippedScheduleReportListener(reportFile.toString());
+		listener.onSkipInProcess(scheduleInfo("a", "taskA"), new IllegalStateException("no task definition"));
+		listener.afterJob(null);
+		assertThat(Files.exists(reportFile)).isTrue();
+
+		SkippedScheduleReportListener restartedListener = new SkippedScheduleReportListener(reportFile.toString());
+		restartedListener.onSkipInWrite(scheduleInfo("b", "taskB"), new IllegalStateException("failed, twice"));
+		restartedListener.afterJob(null);
+		assertThat(Files.readAllLines(reportFile, StandardCharsets.UTF_8)).containsExactly(
+				"scheduleName,taskDefinitionName,phase,failure",
+				"a,taskA,process,java.lang.IllegalStateException: no task definition",
+				"b,taskB,write,\"java.lang.IllegalStateException: failed, twice\"");
+	}
+
+	private ConvertScheduleInfo scheduleInfo(String scheduleName, String taskDefinitionName) {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleName);
+		scheduleInfo.setTaskDefinitionName(taskDefinitionName);
+		return scheduleInfo;
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.migrateschedule.batch.ScheduleSnapshotWriter;
+import io.spring.migrateschedule.service.ConvertScheduleInfo;
+import io.spring.migrateschedule.service.ConverterProperties;
+import io.spring.migrateschedule.service.MigrateScheduleService;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.SnapshotMigrateSchedulerService;
+import io.spring.migrateschedule.service.TaskDefinitionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import org.springframework.cloud.dataflow.core.TaskDefinition;
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerPropertyKeys;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SnapshotMigrateSchedulerServiceTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testSnapshotRoundTrip() throws Exception {
+		String snapshotFile = this.tempDir.resolve("snapshot.jsonl.gz").toString();
+		MigrateScheduleService platformService = Mockito.mock(MigrateScheduleService.class);
+		Mockito.when(platformService.getScheduleEnvironment(any())).thenReturn(
+				Collections.singletonMap("SPRING_APPLICATION_JSON", "{\"spring.cloud.task.name\":\"taskA\",\"foo\":\"bar\"}"));
+		ScheduleSnapshotWriter scheduleSnapshotWriter = new ScheduleSnapshotWriter(platformService, snapshotFile);
+		List<ConvertScheduleInfo> scheduleInfos = Arrays.asList(scheduleInfo("a", "taskA"), scheduleInfo("b", "taskA"));
+		scheduleSnapshotWriter.beforeJob(null);
+		scheduleSnapshotWriter.write(scheduleInfos);
+		scheduleSnapshotWriter.afterJob(null);
+		verify(platformService, times(1)).prefetchScheduleMetadata(scheduleInfos);
+
+		TaskDefinitionRepository taskDefinitionRepository = Mockito.mock(TaskDefinitionRepository.class);
+		Mockito.when(taskDefinitionRepository.findByTaskName("taskA")).thenReturn(new TaskDefinition("taskA", "timestamp"));
+		ConverterProperties converterProperties = new ConverterProperties();
+		converterProperties.setSnapshotFile(snapshotFile);
+		converterProperties.setSnapshotPageSize(1);
+		SnapshotMigrateSchedulerService snapshotService = new SnapshotMigrateSchedulerService(converterProperties,
+				taskDefinitionRepository, new MigrationMetrics());
+		List<List<ConvertScheduleInfo>> pages = snapshotService.scheduleInfoPages().collectList().block();
+		assertThat(pages).hasSize(2);
+		assertThat(pages.get(0)).extracting(ConvertScheduleInfo::getScheduleName).containsExactly("a");
+
+		List<ConvertScheduleInfo> page = pages.get(1);
+		assertThat(page).hasSize(1);
+		ConvertScheduleInfo result = snapshotService.enrichScheduleMetadata(page.get(0));
+		assertThat(result.getScheduleName()).isEqualTo("b");
+		assertThat(result.getScheduleProperties()).containsEntry(SchedulerPropertyKeys.CRON_EXPRESSION, "0 0 * * *")
+				.containsKey("SPRING_APPLICATION_JSON");
+		assertThat(result.getAppProperties()).containsEntry("tasklauncher.app.timestamp.foo", "bar");
+		assertThat(result.getCommandLineArgs()).containsExactly("cmdarg.tasklauncher.--foo=bar",
+				"--spring.cloud.scheduler.task.launcher.taskName=taskA");
+
+		// a page read again is enriched again from the snapshot.
+		assertThat(snapshotService.scheduleInfoPages().blockLast().get(0).getCommandLineArgs()).containsExactly("--foo=bar");
+	}
+
+	private ConvertScheduleInfo scheduleInfo(String scheduleName, String taskDefinitionName) {
+		ConvertScheduleInfo scheduleInfo = new ConvertScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleName);
+		scheduleInfo.setTaskDefinitionName(taskDefinitionName);
+		Map<String, String> scheduleProperties = new HashMap<>();
+		scheduleProperties.put(SchedulerPropertyKeys.CRON_EXPRESSION, "0 0 * * *");
+		scheduleInfo.setScheduleProperties(scheduleProperties);
+		scheduleInfo.setCommandLineArgs(Collections.singletonList("--foo=bar"));
+		return scheduleInfo;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.io.IOException;
+import java.util.Map;
+
+import io.spring.migrateschedule.service.SpringApplicationJson;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SpringApplicationJsonTests {
+
+	@Test
+	public void testFlatProperties() throws Exception {
+		Map<String, String> result = SpringApplicationJson.parse("{\"spring.cloud.task.name\":\"timestamp\",\"count\":5,\"enabled\":true}");
+		assertThat(result).hasSize(3);
+		assertThat(result.get("spring.cloud.task.name")).isEqualTo("timestamp");
+		assertThat(result.get("count")).isEqualTo("5");
+		assertThat(result.get("enabled")).isEqualTo("true");
+	}
+
+	@Test
+	public void testNestedProperties() throws Exception {
+		Map<String, String> result = SpringApplicationJson.parse("{\"spring\":{\"cloud\":{\"task\":{\"name\":\"timestamp\"}}}," +
+				"\"hosts\":[\"a\",{\"port\":8080}],\"empty\":null}");
+		assertThat(result).hasSize(4);
+		assertThat(result.get("spring.cloud.task.name")).isEqualTo("timestamp");
+		assertThat(result.get("hosts[0]")).isEqualTo("a");
+		assertThat(result.get("hosts[1].port")).isEqualTo("8080");
+		assertThat(result.get("empty")).isEqualTo("");
+	}
+
+	@Test
+	public void testInvalidJson() {
+		assertThatThrownBy(() -> SpringApplicationJson.parse("[\"a\"]")).isInstanceOf(IOException.class);
+		assertThatThrownBy(() -> SpringApplicationJson.parse("{\"a\":")).isInstanceOf(IOException.class);
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.Collections;
+
+import io.spring.migrateschedule.service.ConverterProperties;
+import io.spring.migrateschedule.service.MigrationMetrics;
+import io.spring.migrateschedule.service.TaskDefinitionCache;
+import io.spring.migrateschedule.service.TaskDefinitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import org.springframework.cloud.dataflow.core.TaskDefinition;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TaskDefinitionCacheTests {
+
+	public static final String DEFAULT_TASK_DEFINITION_NAME = "defaultTaskDefinitionName";
+
+	private TaskDefinitionRepository taskDefinitionRepository;
+
+	private ConverterProperties converterProperties;
+
+	private TaskDefinition taskDefinition;
+
+	@BeforeEach
+	public void setup() {
+		this.taskDefinitionRepository = Mockito.mock(TaskDefinitionRepository.class);
+		this.converterProperties = new ConverterProperties();
+		this.taskDefinition = TaskDefinition.TaskDefinitionBuilder
+				.from(new TaskDefinition("fooTask", "foo"))
+				.setTaskName(DEFAULT_TASK_DEFINITION_NAME)
+				.build();
+	}
+
+	@Test
+	public void testLookupIsCached() {
+		Mockito.when(this.taskDefinitionRepository.findByTaskName(DEFAULT_TASK_DEFINITION_NAME)).thenReturn(this.taskDefinition);
+		MigrationMetrics migrationMetrics = new MigrationMetrics();
+		TaskDefinitionCache taskDefinitionCache = new TaskDefinitionCache(this.taskDefinitionRepository, this.converterProperties,
+				migrationMetrics);
+		assertThat(taskDefinitionCache.findByTaskName(DEFAULT_TASK_DEFINITION_NAME)).isSameAs(this.taskDefinition);
+		assertThat(taskDefinitionCache.findByTaskName(DEFAULT_TASK_DEFINITION_NAME)).isSameAs(this.taskDefinition);
+		assertThat(taskDefinitionCache.findByTaskName("missing")).isNull();
+		assertThat(taskDefinitionCache.findByTaskName("missing")).isNull();
+		verify(this.taskDefinitionRepository, times(1)).findByTaskName(DEFAULT_TASK_DEFINITION_NAME);
+		verify(this.taskDefinitionRepository, times(1)).findByTaskName("missing");
+		assertThat(migrationMetrics.getMeterRegistry().get(MigrationMetrics.CACHE_GETS)
+				.tag(MigrationMetrics.CACHE_TAG, MigrationMetrics.TASK_DEFINITIONS)
+				.tag(MigrationMetrics.RESULT_TAG, "hit").functionCounter().count()).isEqualTo(2);
+		assertThat(migrationMetrics.getMeterRegistry().get(MigrationMetrics.CACHE_GETS)
+				.tag(MigrationMetrics.CACHE_TAG, MigrationMetrics.TASK_DEFINITIONS)
+				.tag(MigrationMetrics.RESULT_TAG, "miss").functionCounter().count()).isEqualTo(2);
+		assertThat(migrationMetrics.getMeterRegistry().get(MigrationMetrics.CACHE_SIZE)
+				.tag(MigrationMetrics.CACHE_TAG, MigrationMetrics.TASK_DEFINITIONS).gauge().value()).isEqualTo(2);
+	}
+
+	@Test
+	public void testPreload() {
+		this.converterProperties.setPreloadTaskDefinitions(true);
+		Mockito.when(this.taskDefinitionRepository.findAll(Mockito.any(Pageable.class)))
+				.thenReturn(new PageImpl<>(Collections.singletonList(this.taskDefinition)));
+		TaskDefinitionCache taskDefinitionCache = new TaskDefinitionCache(this.taskDefinitionRepository, this.converterProperties,
+				new MigrationMetrics());
+		assertThat(taskDefinitionCache.findByTaskName(DEFAULT_TASK_DEFINITION_NAME)).isSameAs(this.taskDefinition);
+		assertThat(taskDefinitionCache.findByTaskName("missing")).isNull();
+		verify(this.taskDefinitionRepository, times(1)).findAll(
+				Mockito.argThat((Pageable pageable) -> pageable.getSort().equals(Sort.by("taskName"))));
+		verify(this.taskDefinitionRepository, never()).findByTaskName(Mockito.any());
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.spring.migrateschedule.batch.TransientFailureBackOffPolicy;
+import io.spring.migrateschedule.batch.TransientFailureRetryPolicy;
+import io.spring.migrateschedule.service.TransientFailures;
+import org.cloudfoundry.UnknownCloudFoundryException;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.deployer.spi.scheduler.CreateScheduleException;
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerException;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TransientFailuresTests {
+
+	@Test
+	public void testClassification() {
+		assertThat(TransientFailures.isTransient(new IllegalStateException("Timeout on blocking read",
+				new TimeoutException()))).isTrue();
+		assertThat(TransientFailures.isTransient(new CreateScheduleException("failed", new IOException()))).isTrue();
+		assertThat(TransientFailures.isTransient(new SchedulerException("failed"))).isFalse();
+		assertThat(TransientFailures.isTransient(new CreateScheduleException("failed",
+				new UnknownCloudFoundryException(429)))).isTrue();
+		assertThat(TransientFailures.isTransient(new CreateScheduleException("failed",
+				new UnknownCloudFoundryException(502)))).isTrue();
+		assertThat(TransientFailures.isTransient(new CreateScheduleException("failed",
+				new UnknownCloudFoundryException(400)))).isFalse();
+		assertThat(TransientFailures.isTransient(new IllegalStateException("no task definition"))).isFalse();
+		assertThat(TransientFailures.isRateLimited(new SchedulerException("failed",
+				new UnknownCloudFoundryException(429)))).isTrue();
+		assertThat(TransientFailures.isRateLimited(new SchedulerException("failed",
+				new UnknownCloudFoundryException(500)))).isFalse();
+	}
+
+	@Test
+	public void testTransientFailuresAreRetriedWithBackOff() {
+		List<Long> sleeps = new ArrayList<>();
+		AtomicInteger attempts = new AtomicInteger();
+		RetryTemplate retryTemplate = createRetryTemplate(sleeps);
+		String result = retryTemplate.execute(context -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new SchedulerException("failed", new UnknownCloudFoundryException(502));
+			}
+			return "migrated";
+		});
+		assertThat(result).isEqualTo("migrated");
+		assertThat(sleeps).hasSize(2);
+		assertThat(sleeps).allSatisfy(sleep -> assertThat(sleep).isBetween(100L, 1000L));
+	}
+
+	@Test
+	public void testRateLimitedFailuresBackOffLonger() {
+		List<Long> sleeps = new ArrayList<>();
+		AtomicInteger attempts = new AtomicInteger();
+		RetryTemplate retryTemplate = createRetryTemplate(sleeps);
+		assertThatThrownBy(() -> retryTemplate.execute(context -> {
+			attempts.incrementAndGet();
+			throw new SchedulerException("failed", new UnknownCloudFoundryException(429));
+		})).isInstanceOf(SchedulerException.class);
+		assertThat(attempts).hasValue(3);
+		assertThat(sleeps).hasSize(2);
+		assertThat(sleeps).allSatisfy(sleep -> assertThat(sleep).isBetween(500L, 1000L));
+	}
+
+	@Test
+	public void testPermanentFailuresAreNotRetried() {
+		AtomicInteger attempts = new AtomicInteger();
+		RetryTemplate retryTemplate = createRetryTemplate(new ArrayList<>());
+		assertThatThrownBy(() -> retryTemplate.execute(context -> {
+			attempts.incrementAndGet();
+			throw new IllegalStateException("no task definition");
+		})).isInstanceOf(IllegalStateException.class);
+		assertThat(attempts).hasValue(1);
+	}
+
+	private RetryTemplate createRetryTemplate(List<Long> sleeps) {
+		TransientFailureBackOffPolicy backOffPolicy = new TransientFailureBackOffPolicy(100, 1000);
+		backOffPolicy.setSleeper(sleeps::add);
+		RetryTemplate retryTemplate = new RetryTemplate();
+		retryTemplate.setRetryPolicy(new TransientFailureRetryPolicy(3));
+		retryTemplate.setBackOffPolicy(backOffPolicy);
+		return retryTemplate;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package io.spring.migrateschedule;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.spring.migrateschedule.service.VirtualThreadTaskExecutor;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VirtualThreadTaskExecutorTests {
+
+	@Test
+	public void testUnsupportedJvm() {
+		assumeFalse(VirtualThreadTaskExecutor.isSupported());
+		assertThatThrownBy(() -> new VirtualThreadTaskExecutor("migrate-", 10))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Java 21");
+	}
+
+	@Test
+	public void testConcurrencyIsCapped() throws Exception {
+		assumeTrue(VirtualThreadTaskExecutor.isSupported());
+		VirtualThreadTaskExecutor taskExecutor = new VirtualThreadTaskExecutor("migrate-", 2);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch completed = new CountDownLatch(3);
+		AtomicInteger maxRunning = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger();
+		// the tasks above the cap wait on their virtual thread, not on the caller.
+		for (int i = 0; i < 3; i++) {
+			taskExecutor.execute(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					release.await();
+				}
+				catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				completed.countDown();
+			});
+		}
+		while (taskExecutor.getQueueLength() == 0) {
+			Thread.sleep(10);
+		}
+		assertThat(taskExecutor.getActiveCount()).isEqualTo(2);
+		release.countDown();
+		assertThat(completed.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(maxRunning.get()).isEqualTo(2);
+	}
+}